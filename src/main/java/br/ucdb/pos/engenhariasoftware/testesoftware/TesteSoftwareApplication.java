@@ -2,8 +2,10 @@ package br.ucdb.pos.engenhariasoftware.testesoftware;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TesteSoftwareApplication {
 
 	public static void main(String[] args) {
@@ -1,16 +1,22 @@
 package br.ucdb.pos.engenhariasoftware.testesoftware;
 
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.RequisicaoCondicionalInterceptor;
 import br.ucdb.pos.engenhariasoftware.testesoftware.converter.DateToStringConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.converter.MoneyToStringConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.converter.StringToDateConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.converter.StringToMoneyConverter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 @Component
 public class WebConfigurer extends WebMvcConfigurerAdapter {
 
+    @Autowired
+    private RequisicaoCondicionalInterceptor requisicaoCondicional;
+
     @Override
     public void addFormatters(FormatterRegistry registry) {
         registry.addConverter(new StringToMoneyConverter());
@@ -18,4 +24,11 @@ public class WebConfigurer extends WebMvcConfigurerAdapter {
         registry.addConverter(new DateToStringConverter());
         registry.addConverter(new MoneyToStringConverter());
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requisicaoCondicional)
+                .addPathPatterns("/lancamentos", "/lancamentos/*", "/buscaLancamentos", "/dashboard", "/dashboard/data")
+                .excludePathPatterns("/lancamentos/export");
+    }
 }
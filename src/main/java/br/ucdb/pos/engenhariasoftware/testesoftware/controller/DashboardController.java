@@ -4,22 +4,25 @@ import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancament
 import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
 import br.ucdb.pos.engenhariasoftware.testesoftware.converter.DateToStringConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.service.LancamentoService;
+import br.ucdb.pos.engenhariasoftware.testesoftware.util.FormatoNumerico;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.TemporalAdjusters;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 @Controller
 public class DashboardController {
@@ -27,60 +30,89 @@ public class DashboardController {
     @Autowired
     private LancamentoService lancamentoService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
 
+    /**
+     * Página do dashboard; os dados do gráfico e da tabela são buscados em <code>/dashboard/data</code>.
+     */
     @RequestMapping("/dashboard")
     public ModelAndView relatorio(Date dataInicial, Date dataFinal){
-        if(dataInicial == null) {
-            dataInicial = Date.from(LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()).atStartOfDay().atZone(ZoneId.systemDefault()).toInstant());
-        }
-        if(dataFinal == null) {
-            dataFinal = Date.from(LocalDate.now().with(TemporalAdjusters.lastDayOfMonth()).atStartOfDay().atZone(ZoneId.systemDefault()).toInstant());
-        }
-
         DateToStringConverter converter = new DateToStringConverter();
-        StringBuilder titulo = new StringBuilder();
-        titulo.append("Entrada vs Saída ( ");
-        titulo.append(converter.convert(dataInicial) + " - " + converter.convert(dataFinal) + " )");
         ModelAndView mv = new ModelAndView("dashboard");
-        mv.addObject("dataChart", getChartData(dataInicial, dataFinal));
-        mv.addObject("dataTable", getTableData(dataInicial, dataFinal));
-        mv.addObject("tituloChart", titulo.toString());
+        mv.addObject("dataInicial", converter.convert(dataInicial != null ? dataInicial : inicioDoMes()));
+        mv.addObject("dataFinal", converter.convert(dataFinal != null ? dataFinal : fimDoMes()));
         return mv;
     }
 
-    protected String getTableData(Date dataInicial, Date dataFinal){
-        List<TotalLancamentoCategoriaVO> totaisCategoria =  lancamentoService.getTotalPorPeriodoPorCategoria(dataInicial, dataFinal);
-        final StringBuilder builder = new StringBuilder("[");
-
-        NumberFormat format = new DecimalFormat("'R$ ' #,###,##0.00");
-        totaisCategoria.stream().forEach(t -> {
-            String categoria = "Sem Categoria";
-            BigDecimal valor = t.total.setScale(2, RoundingMode.HALF_UP);
-            if(t.categoria != null){
-                categoria = t.categoria.getNome();
-            }
-            builder.append("['" + categoria + "',{v:" + (valor) + ", f:'" + format.format(valor) +"'}],");
-        });
-
-        builder.deleteCharAt(builder.lastIndexOf(","));
-        builder.append("]");
-
-        return builder.toString();
+    /**
+     * Título, dados do gráfico e da tabela em JSON, escritos diretamente na resposta. Enquanto os lançamentos
+     * não mudam, o {@link RequisicaoCondicionalInterceptor} responde 304 antes de chegar aqui.
+     */
+    @GetMapping("/dashboard/data")
+    public void dados(@RequestParam(value = "dataInicial", required = false) Date dataInicial,
+                      @RequestParam(value = "dataFinal", required = false) Date dataFinal,
+                      HttpServletResponse response) throws IOException {
+        if(dataInicial == null) {
+            dataInicial = inicioDoMes();
+        }
+        if(dataFinal == null) {
+            dataFinal = fimDoMes();
+        }
+        final List<TotalLancamentoVO> totais = lancamentoService.getTotalPorPeriodo(dataInicial, dataFinal);
+        final List<TotalLancamentoCategoriaVO> totaisCategoria = lancamentoService.getTotalPorPeriodoPorCategoria(dataInicial, dataFinal);
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        try(JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)){
+            escreveDados(titulo(dataInicial, dataFinal), totais, totaisCategoria, json);
+        }
     }
 
-    protected String getChartData(Date dataInicial, Date dataFinal){
-
-        List<TotalLancamentoVO> totais =  lancamentoService.getTotalPorPeriodo(dataInicial, dataFinal);
+    /**
+     * Formato esperado pelo Google Charts: <code>grafico</code> para <code>arrayToDataTable</code>,
+     * com a linha de cabeçalho, e <code>tabela</code> para <code>addRows</code>, com valor e texto formatado.
+     */
+    protected void escreveDados(String titulo, List<TotalLancamentoVO> totais,
+                                List<TotalLancamentoCategoriaVO> totaisCategoria, JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("titulo", titulo);
+
+        json.writeArrayFieldStart("grafico");
+        json.writeStartArray();
+        json.writeString("Lançamentos");
+        json.writeString("Entrada vs Saída");
+        json.writeEndArray();
+        for(TotalLancamentoVO total : totais){
+            json.writeStartArray();
+            json.writeString(total.getTipo().getTipo());
+            json.writeNumber(total.getTotal());
+            json.writeEndArray();
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("tabela");
+        for(TotalLancamentoCategoriaVO total : totaisCategoria){
+            json.writeStartArray();
+            json.writeString(total.getCategoria() != null ? total.getCategoria().getNome() : "Sem Categoria");
+            json.writeStartObject();
+            json.writeNumberField("v", total.getTotal());
+            json.writeStringField("f", FormatoNumerico.REAIS.formata(total.getTotal()));
+            json.writeEndObject();
+            json.writeEndArray();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
 
-        final StringBuilder builder = new StringBuilder();
-        builder.append("[['Lançamentos','Entrada vs Saída'],");
-        totais.stream().forEach(t -> {
-            builder.append("['" + t.tipo.getTipo() + "'," + t.total.setScale(2, RoundingMode.HALF_UP) + "],");
-        });
+    private static String titulo(Date dataInicial, Date dataFinal) {
+        DateToStringConverter converter = new DateToStringConverter();
+        return "Entrada vs Saída ( " + converter.convert(dataInicial) + " - " + converter.convert(dataFinal) + " )";
+    }
 
-        builder.deleteCharAt(builder.lastIndexOf(","));
-        builder.append("]");
+    private static Date inicioDoMes() {
+        return Date.from(LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()).atStartOfDay().atZone(ZoneId.systemDefault()).toInstant());
+    }
 
-        return builder.toString();
+    private static Date fimDoMes() {
+        return Date.from(LocalDate.now().with(TemporalAdjusters.lastDayOfMonth()).atStartOfDay().atZone(ZoneId.systemDefault()).toInstant());
     }
 }
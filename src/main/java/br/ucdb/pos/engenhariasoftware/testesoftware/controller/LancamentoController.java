@@ -4,21 +4,43 @@ import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.ResultadoVO;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.BuscaAssincrona;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.CursorLancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.ExportacaoLancamentoService;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.FiltroExportacao;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.FormatoExportacao;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.FormatoImportacao;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.ImportacaoLancamentoService;
 import br.ucdb.pos.engenhariasoftware.testesoftware.service.LancamentoService;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.ModoContagem;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.ResultadoImportacao;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.view.RedirectView;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 public class LancamentoController {
@@ -26,17 +48,62 @@ public class LancamentoController {
 	@Autowired
 	private LancamentoService lancamentoService;
 
+	@Autowired
+	private ExportacaoLancamentoService exportacaoService;
+
+	@Autowired
+	private ImportacaoLancamentoService importacaoService;
+
+	@Autowired
+	private BuscaAssincrona buscaAssincrona;
+
 	@Getter
 	private EnumSet<Categoria> categorias = EnumSet.allOf(Categoria.class);
 
-	private int paginaCorrente;
-
 	@PostMapping("/buscaLancamentos")
-    public ResponseEntity<ResultadoVO> buscaAjax(@RequestBody String itemBusca){
-        ResultadoVO resultadoVO = lancamentoService.buscaAjax(itemBusca);
+    public ResponseEntity<ResultadoVO> buscaAjax(@RequestBody String itemBusca,
+                                                 @RequestParam(value = "contagem", defaultValue = "EXATA") ModoContagem contagem){
+        ResultadoVO resultadoVO = lancamentoService.buscaAjax(itemBusca, contagem);
 	    return ResponseEntity.ok(resultadoVO);
     }
 
+    /**
+     * Mesma busca em GET, para que o navegador possa revalidar o resultado pela ETag. A consulta roda
+     * no pool de {@link BuscaAssincrona}, liberando a thread da requisição enquanto isso.
+     * Responde 204 quando a busca é substituída por outra do mesmo cliente e 503 quando o pool está
+     * cheio ou a busca excede o tempo máximo.
+     * @param cliente identifica a página que busca, para que a busca anterior dela seja descartada
+     */
+    @GetMapping("/buscaLancamentos")
+    public DeferredResult<ResponseEntity<ResultadoVO>> buscaAjaxGet(@RequestParam(value = "itemBusca", defaultValue = "") String itemBusca,
+                                                                    @RequestParam(value = "contagem", defaultValue = "EXATA") ModoContagem contagem,
+                                                                    @RequestHeader(value = "X-Busca-Cliente", required = false) String cliente){
+        final DeferredResult<ResponseEntity<ResultadoVO>> resposta =
+                new DeferredResult<>(buscaAssincrona.getTimeoutMillis(), semResultado(HttpStatus.SERVICE_UNAVAILABLE));
+        final CompletableFuture<ResultadoVO> busca = buscaAssincrona.busca(cliente, itemBusca, contagem);
+        resposta.onTimeout(() -> busca.cancel(false));
+        busca.whenComplete((resultadoVO, erro) -> {
+            if(erro == null){
+                resposta.setResult(ResponseEntity.ok(resultadoVO));
+            }else if(erro instanceof CancellationException){
+                resposta.setResult(semResultado(HttpStatus.NO_CONTENT));
+            }else if(erro instanceof RejectedExecutionException){
+                resposta.setResult(semResultado(HttpStatus.SERVICE_UNAVAILABLE));
+            }else{
+                resposta.setErrorResult(erro);
+            }
+        });
+        return resposta;
+    }
+
+    /**
+     * Respostas vazias não podem ser guardadas pelo navegador com a ETag da busca, senão uma
+     * revalidação posterior devolveria a resposta vazia no lugar do resultado.
+     */
+    private static ResponseEntity<ResultadoVO> semResultado(HttpStatus status){
+        return ResponseEntity.status(status).header(HttpHeaders.CACHE_CONTROL, "no-store").build();
+    }
+
     @GetMapping("/lancamentos")
     public ModelAndView lancamentos(){
         return geraRetornoLancamentos(1);
@@ -47,14 +114,53 @@ public class LancamentoController {
         return geraRetornoLancamentos(pagina);
     }
 
+    @GetMapping(value = "/lancamentos", params = "after")
+    public ModelAndView lancamentosApos(@RequestParam("after") String after,
+                                        @RequestParam(value = "p", defaultValue = "1") int pagina){
+        final CursorLancamento cursor = CursorLancamento.decodifica(after);
+        return geraRetornoLancamentos(lancamentoService.buscaApos(cursor), pagina);
+    }
+
+    @GetMapping("/lancamentos/export")
+    public void exporta(@RequestParam(value = "formato", defaultValue = "csv") String formato,
+                        FiltroExportacao filtro, HttpServletResponse response) throws IOException {
+        final FormatoExportacao formatoExportacao = FormatoExportacao.de(formato);
+        if(formatoExportacao == null){
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Formato de exportação inválido: " + formato);
+            return;
+        }
+        response.setContentType(formatoExportacao.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"lancamentos." + formatoExportacao.getExtensao() + "\"");
+        exportacaoService.exporta(filtro, formatoExportacao, response.getWriter());
+    }
+
+    @PostMapping("/lancamentos/import")
+    public ResponseEntity<ResultadoImportacao> importa(@RequestParam("formato") String formato,
+                                                      HttpServletRequest request) throws IOException {
+        final FormatoImportacao formatoImportacao = FormatoImportacao.de(formato);
+        if(formatoImportacao == null){
+            return ResponseEntity.badRequest().build();
+        }
+        final Charset charset = request.getCharacterEncoding() != null ?
+                Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        try(BufferedReader entrada = new BufferedReader(new InputStreamReader(request.getInputStream(), charset))){
+            return ResponseEntity.ok(importacaoService.importa(formatoImportacao, entrada));
+        }
+    }
+
     protected ModelAndView geraRetornoLancamentos(int pagina){
-        final List<Lancamento> lancamentos = lancamentoService.buscaTodos(pagina);
+        return geraRetornoLancamentos(lancamentoService.buscaTodos(pagina), pagina);
+    }
+
+    protected ModelAndView geraRetornoLancamentos(final List<Lancamento> lancamentos, int pagina){
         Long totalRegistros = lancamentoService.conta(null);
         List<Integer> paginas = lancamentoService.getPaginas(totalRegistros.intValue());
         int tamanhoPagina = lancamentos.size() >= lancamentoService.tamanhoPagina() ? lancamentoService.tamanhoPagina() : lancamentos.size();
-        paginaCorrente = pagina;
+        CursorLancamento proximoCursor = lancamentoService.proximoCursor(lancamentos);
 
         final ModelAndView mv = new ModelAndView("lancamentos");
+        mv.addObject("proximoCursor", proximoCursor != null ? proximoCursor.codifica() : null);
         mv.addObject("p", pagina);
         mv.addObject("tamanhoPagina", tamanhoPagina);
         mv.addObject("totalRegistros", totalRegistros);
@@ -65,53 +171,60 @@ public class LancamentoController {
     }
 
     @GetMapping("/lancamento")
-    public ModelAndView lancamento(Lancamento lancamento){
+    public ModelAndView lancamento(Lancamento lancamento,
+                                   @RequestParam(value = "p", defaultValue = "1") int pagina){
 
         final Map<String, Object> map = new HashMap<>();
         map.put("lancamento", lancamento);
+        map.put("p", pagina);
         map.put("tiposLancamento", TipoLancamento.values());
         map.put("categorias", categorias);
         return new ModelAndView("cadastra-lancamento", map);
     }
 
     @PostMapping("/salvar")
-    public Object salvar(@Valid Lancamento lancamento, BindingResult bindingResult){
+    public Object salvar(@Valid Lancamento lancamento, BindingResult bindingResult,
+                         @RequestParam(value = "p", defaultValue = "1") int pagina){
 
         if(lancamento.getCategoria() == null){
             String mensagem = "A categoria deve ser informada";
             bindingResult.addError(new FieldError("lancamento", "categoria", mensagem));
         }
         if(bindingResult.hasErrors()){
-            return lancamento(lancamento);
+            return lancamento(lancamento, pagina);
         }
 
         lancamentoService.salvar(lancamento);
-        ajustaPaginaCorrente();
-        return new RedirectView("/lancamentos/" + paginaCorrente);
+        return new RedirectView("/lancamentos/" + ajustaPagina(pagina));
     }
 
-    private void ajustaPaginaCorrente() {
+    /**
+     * A página vem de cada requisição (parâmetro <code>p</code>), já que o controller é
+     * compartilhado entre todos os usuários.
+     * @param pagina página em que o usuário estava
+     * @return a mesma página, limitada às páginas existentes depois da alteração
+     */
+    private int ajustaPagina(int pagina) {
         Long totalRegistros = lancamentoService.conta(null);
         int numeroPaginas = lancamentoService.calculaNumeroPaginas(totalRegistros.intValue());
-        if(paginaCorrente < 1){
-            paginaCorrente = 1;
-
-        }else if(paginaCorrente > numeroPaginas){
-            paginaCorrente = numeroPaginas;
+        if(pagina > numeroPaginas){
+            pagina = numeroPaginas;
         }
+        return pagina < 1 ? 1 : pagina;
     }
 
     @GetMapping("/editar/{id}")
-    public ModelAndView edtiar(@PathVariable("id") Long id){
+    public ModelAndView edtiar(@PathVariable("id") Long id,
+                               @RequestParam(value = "p", defaultValue = "1") int pagina){
 
-	    return lancamento(lancamentoService.buscaPorId(id));
+	    return lancamento(lancamentoService.buscaPorId(id), pagina);
     }
 
     @GetMapping("/remover/{id}")
-    public RedirectView remover(@PathVariable("id") Long id){
+    public RedirectView remover(@PathVariable("id") Long id,
+                                @RequestParam(value = "p", defaultValue = "1") int pagina){
 
         lancamentoService.remover(id);
-        ajustaPaginaCorrente();
-        return new RedirectView("/lancamentos/" + paginaCorrente);
+        return new RedirectView("/lancamentos/" + ajustaPagina(pagina));
     }
 }
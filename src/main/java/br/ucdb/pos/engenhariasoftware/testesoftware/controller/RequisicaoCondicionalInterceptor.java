@@ -0,0 +1,35 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.controller;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.VersaoLancamentos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDate;
+
+/**
+ * Responde <code>304 Not Modified</code> às consultas (GET) de páginas e dados derivados dos lançamentos
+ * enquanto a {@link VersaoLancamentos} não muda, sem executar o controller nem acessar o banco.
+ * A ETag combina a versão com o dia corrente, já que os períodos padrão dependem da data de hoje.
+ */
+@Component
+public class RequisicaoCondicionalInterceptor extends HandlerInterceptorAdapter {
+
+    @Autowired
+    private VersaoLancamentos versaoLancamentos;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        // o navegador sempre revalida, em vez de reaproveitar a página por tempo estimado
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        final String etag = "\"" + versaoLancamentos.getVersao() + "-" + LocalDate.now().toEpochDay() + "\"";
+        return !new ServletWebRequest(request, response).checkNotModified(etag, versaoLancamentos.getUltimaAlteracao());
+    }
+}
@@ -19,7 +19,8 @@ public class ResultadoVO implements Serializable {
     private int tamanhoPagina;
     @Getter
     private long totalRegistros;
-
+    @Getter
+    private boolean totalExato;
 
     public ResultadoVO(String totalSaida, String totalEntrada, List<LancamentoVO> lancamentos, int tamanhoPagina, long totalRegistros) {
         this.totalSaida = totalSaida;
@@ -27,5 +28,11 @@ public class ResultadoVO implements Serializable {
         this.lancamentos = lancamentos;
         this.tamanhoPagina = tamanhoPagina;
         this.totalRegistros = totalRegistros;
+        this.totalExato = true;
+    }
+
+    public ResultadoVO(String totalSaida, String totalEntrada, List<LancamentoVO> lancamentos, int tamanhoPagina, long totalRegistros, boolean totalExato) {
+        this(totalSaida, totalEntrada, lancamentos, tamanhoPagina, totalRegistros);
+        this.totalExato = totalExato;
     }
 }
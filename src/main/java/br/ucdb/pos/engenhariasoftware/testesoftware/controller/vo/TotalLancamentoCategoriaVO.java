@@ -1,5 +1,6 @@
 package br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo;
 
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
 import lombok.EqualsAndHashCode;
@@ -20,14 +21,15 @@ public class TotalLancamentoCategoriaVO implements Serializable {
     @Getter
     public Categoria categoria;
 
-    public TotalLancamentoCategoriaVO(BigDecimal total, TipoLancamento tipo, Categoria categoria) {
+    /**
+     * @param totalCentavos soma dos valores em centavos, como devolvida pelas consultas
+     * @param tipo tipo dos lançamentos somados
+     * @param categoria categoria dos lançamentos somados
+     */
+    public TotalLancamentoCategoriaVO(long totalCentavos, TipoLancamento tipo, Categoria categoria) {
         this.tipo = tipo;
-        this.total = total;
         this.categoria = categoria;
-
-        if(isSaida()){
-            this.total = total.negate();
-        }
+        this.total = CentavosConverter.valor(isSaida() ? -totalCentavos : totalCentavos);
     }
 
     public boolean isSaida(){
@@ -1,5 +1,6 @@
 package br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo;
 
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -16,8 +17,12 @@ public class TotalLancamentoVO implements Serializable {
     @Getter
     public BigDecimal total;
 
-    public TotalLancamentoVO(BigDecimal total, TipoLancamento tipo) {
+    /**
+     * @param totalCentavos soma dos valores em centavos, como devolvida pelas consultas
+     * @param tipo tipo dos lançamentos somados
+     */
+    public TotalLancamentoVO(long totalCentavos, TipoLancamento tipo) {
         this.tipo = tipo;
-        this.total = total;
+        this.total = CentavosConverter.valor(totalCentavos);
     }
 }
@@ -0,0 +1,124 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.converter;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+
+/**
+ * Lê valores no formato "R$ 1.234,56" em uma única passada, acumulando o valor não escalado
+ * num <code>long</code>. Regras, compartilhadas pelo conversor do formulário e pelo JSON:
+ * <ul>
+ *     <li>espaços nas pontas e o símbolo "R$" (seguido ou não de espaço) são opcionais;</li>
+ *     <li>o sinal "-" pode vir antes ou depois do símbolo;</li>
+ *     <li>o ponto separa milhares e é aceito em qualquer posição da parte inteira depois do primeiro dígito;</li>
+ *     <li>a vírgula separa os decimais, que mantêm a escala digitada (",50" vale 0,50);</li>
+ *     <li>qualquer outro caractere torna o valor inválido.</li>
+ * </ul>
+ */
+public final class AnalisadorMonetario {
+
+    private static final int MAXIMO_DIGITOS_LONG = 18;
+
+    private AnalisadorMonetario() {
+    }
+
+    /**
+     * @param texto valor digitado
+     * @return valor lido ou <code>null</code> quando o texto está vazio ou só tem o símbolo da moeda
+     * @throws ParseException quando o texto não segue as regras acima
+     */
+    public static BigDecimal analisa(String texto) throws ParseException {
+        if (texto == null) {
+            return null;
+        }
+        int inicio = 0;
+        int fim = texto.length();
+        while (inicio < fim && espaco(texto.charAt(inicio))) {
+            inicio++;
+        }
+        while (fim > inicio && espaco(texto.charAt(fim - 1))) {
+            fim--;
+        }
+
+        int i = inicio;
+        boolean negativo = false;
+        if (i < fim && texto.charAt(i) == '-') {
+            negativo = true;
+            i++;
+        }
+        if (i + 1 < fim && texto.charAt(i) == 'R' && texto.charAt(i + 1) == '$') {
+            i += 2;
+            while (i < fim && espaco(texto.charAt(i))) {
+                i++;
+            }
+            if (i == fim && !negativo) {
+                return null;
+            }
+            if (!negativo && i < fim && texto.charAt(i) == '-') {
+                negativo = true;
+                i++;
+            }
+        }
+        if (i == fim) {
+            if (inicio == fim) {
+                return null;
+            }
+            throw new ParseException("Valor sem dígitos: \"" + texto + "\"", i);
+        }
+
+        long naoEscalado = 0;
+        int digitos = 0;
+        int escala = -1;
+        final int inicioNumero = i;
+        for (; i < fim; i++) {
+            final char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digitos > 0 || c != '0') {
+                    digitos++;
+                }
+                naoEscalado = naoEscalado * 10 + (c - '0');
+                if (escala >= 0) {
+                    escala++;
+                }
+            } else if (c == '.' && escala < 0 && i > inicioNumero) {
+                continue;
+            } else if (c == ',' && escala < 0 && i + 1 < fim) {
+                escala = 0;
+            } else {
+                throw new ParseException("Valor inválido: \"" + texto + "\"", i);
+            }
+            if (digitos > MAXIMO_DIGITOS_LONG) {
+                return semLimite(texto, inicioNumero, fim, negativo);
+            }
+        }
+        return BigDecimal.valueOf(negativo ? -naoEscalado : naoEscalado, Math.max(escala, 0));
+    }
+
+    /**
+     * Valores com mais dígitos do que cabem num <code>long</code>, lidos com as mesmas regras.
+     */
+    private static BigDecimal semLimite(String texto, int inicio, int fim, boolean negativo) throws ParseException {
+        final StringBuilder numero = new StringBuilder(fim - inicio + 1);
+        if (negativo) {
+            numero.append('-');
+        }
+        boolean virgula = false;
+        for (int i = inicio; i < fim; i++) {
+            final char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                numero.append(c);
+            } else if (c == '.' && !virgula && i > inicio) {
+                continue;
+            } else if (c == ',' && !virgula && i + 1 < fim) {
+                virgula = true;
+                numero.append('.');
+            } else {
+                throw new ParseException("Valor inválido: \"" + texto + "\"", i);
+            }
+        }
+        return new BigDecimal(numero.toString());
+    }
+
+    private static boolean espaco(char c) {
+        return c == ' ' || c == '\u00a0' || c == '\t';
+    }
+}
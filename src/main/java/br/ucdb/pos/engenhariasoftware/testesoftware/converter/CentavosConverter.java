@@ -0,0 +1,38 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.converter;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Grava valores monetários como centavos em uma coluna <code>bigint</code>, de modo que as somas
+ * feitas pelo banco e pelos totais sejam de inteiros. Na entidade o valor continua {@link BigDecimal},
+ * sempre com duas casas decimais.
+ */
+@Converter
+public class CentavosConverter implements AttributeConverter<BigDecimal, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(BigDecimal valor) {
+        return valor != null ? centavos(valor) : null;
+    }
+
+    @Override
+    public BigDecimal convertToEntityAttribute(Long centavos) {
+        return centavos != null ? valor(centavos) : null;
+    }
+
+    /**
+     * @param valor valor em reais; casas além dos centavos são arredondadas, como na antiga coluna numeric(19,2)
+     * @return quantidade de centavos
+     */
+    public static long centavos(BigDecimal valor) {
+        final BigDecimal emCentavos = valor.scale() == 2 ? valor : valor.setScale(2, RoundingMode.HALF_UP);
+        return emCentavos.unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal valor(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+}
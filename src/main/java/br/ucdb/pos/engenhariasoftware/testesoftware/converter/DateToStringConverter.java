@@ -1,13 +1,10 @@
 package br.ucdb.pos.engenhariasoftware.testesoftware.converter;
 
+import br.ucdb.pos.engenhariasoftware.testesoftware.util.FormatoData;
 import org.springframework.core.convert.converter.Converter;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
-import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
-
 public class DateToStringConverter implements Converter<Date, String> {
 
     @Override
@@ -15,7 +12,6 @@ public class DateToStringConverter implements Converter<Date, String> {
         if(date == null) {
             return null;
         }
-        DateFormat df = new SimpleDateFormat(DD_MM_YYYY);
-        return df.format(date);
+        return FormatoData.formata(date);
     }
 }
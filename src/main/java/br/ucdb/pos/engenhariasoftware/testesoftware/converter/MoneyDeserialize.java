@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.text.ParseException;
 
 public class MoneyDeserialize extends JsonDeserializer<BigDecimal> {
 
@@ -15,15 +16,12 @@ public class MoneyDeserialize extends JsonDeserializer<BigDecimal> {
                                   DeserializationContext deserializationContext) throws IOException {
 
         String valorString = jsonParser.getText();
-        if(valorString == null || valorString.trim().equals("R$") || valorString.trim().equals("")){
-            return null;
+        final BigDecimal valor;
+        try {
+            valor = AnalisadorMonetario.analisa(valorString);
+        } catch (ParseException e) {
+            throw deserializationContext.weirdStringException(valorString, BigDecimal.class, e.getMessage());
         }
-        final BigDecimal valor = new BigDecimal(valorString
-                .trim()
-                .replace(".", "")
-                .replace(",", ".")
-                .replace("R$", "")
-                .trim());
-        return valor.setScale(2, RoundingMode.HALF_UP);
+        return valor != null ? valor.setScale(2, RoundingMode.HALF_UP) : null;
     }
 }
@@ -1,11 +1,9 @@
 package br.ucdb.pos.engenhariasoftware.testesoftware.converter;
 
+import br.ucdb.pos.engenhariasoftware.testesoftware.util.FormatoNumerico;
 import org.springframework.core.convert.converter.Converter;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
-
-import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.BR;
 
 public class MoneyToStringConverter implements Converter<BigDecimal, String> {
 
@@ -13,7 +11,6 @@ public class MoneyToStringConverter implements Converter<BigDecimal, String> {
     public String convert(BigDecimal bigDecimal) {
         if(bigDecimal == null)
             return "";
-        return NumberFormat.getCurrencyInstance(BR).format(bigDecimal);
+        return FormatoNumerico.MOEDA.formata(bigDecimal);
     }
 }
-
@@ -0,0 +1,34 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.CacheBuscaPrefixo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expõe no endpoint <code>/metrics</code> os contadores do cache de buscas, separando as buscas
+ * resolvidas pelo refinamento de uma busca mais ampla das que percorreram o índice.
+ */
+@Component
+public class CacheBuscaPublicMetrics implements PublicMetrics {
+
+    @Autowired
+    private CacheBuscaPrefixo cacheBusca;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metricas = new ArrayList<>(6);
+        metricas.add(new Metric<>("cache.busca.size", cacheBusca.getTamanho()));
+        metricas.add(new Metric<>("cache.busca.hits", cacheBusca.getAcertos()));
+        metricas.add(new Metric<>("cache.busca.refinements", cacheBusca.getRefinamentos()));
+        metricas.add(new Metric<>("cache.busca.misses", cacheBusca.getFalhas()));
+        metricas.add(new Metric<>("cache.busca.evictions", cacheBusca.getExpulsoes()));
+        metricas.add(new Metric<>("cache.busca.invalidations", cacheBusca.getInvalidacoes()));
+        return metricas;
+    }
+}
@@ -0,0 +1,57 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expõe no endpoint <code>/metrics</code> os acertos e falhas do cache de segundo nível e do cache
+ * de consultas do Hibernate, no total e por região.
+ */
+@Component
+public class CacheSegundoNivelPublicMetrics implements PublicMetrics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final List<Metric<?>> metricas = new ArrayList<>();
+        metricas.add(new Metric<>("hibernate.cache.hits", estatisticas.getSecondLevelCacheHitCount()));
+        metricas.add(new Metric<>("hibernate.cache.misses", estatisticas.getSecondLevelCacheMissCount()));
+        metricas.add(new Metric<>("hibernate.cache.puts", estatisticas.getSecondLevelCachePutCount()));
+        metricas.add(new Metric<>("hibernate.cache.hitRatio",
+                taxa(estatisticas.getSecondLevelCacheHitCount(), estatisticas.getSecondLevelCacheMissCount())));
+        metricas.add(new Metric<>("hibernate.queryCache.hits", estatisticas.getQueryCacheHitCount()));
+        metricas.add(new Metric<>("hibernate.queryCache.misses", estatisticas.getQueryCacheMissCount()));
+        metricas.add(new Metric<>("hibernate.queryCache.puts", estatisticas.getQueryCachePutCount()));
+        metricas.add(new Metric<>("hibernate.queryCache.hitRatio",
+                taxa(estatisticas.getQueryCacheHitCount(), estatisticas.getQueryCacheMissCount())));
+        for (String regiao : estatisticas.getSecondLevelCacheRegionNames()) {
+            final SecondLevelCacheStatistics cache = estatisticas.getSecondLevelCacheStatistics(regiao);
+            if (cache == null) {
+                continue;
+            }
+            final String prefixo = "hibernate.cache.region." + regiao;
+            metricas.add(new Metric<>(prefixo + ".hits", cache.getHitCount()));
+            metricas.add(new Metric<>(prefixo + ".misses", cache.getMissCount()));
+            metricas.add(new Metric<>(prefixo + ".size", cache.getElementCountInMemory()));
+        }
+        return metricas;
+    }
+
+    private static double taxa(long acertos, long falhas) {
+        final long total = acertos + falhas;
+        return total == 0 ? 0.0 : (double) acertos / total;
+    }
+}
@@ -0,0 +1,39 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.CachePorPeriodo;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.CacheTotaisDashboard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expõe no endpoint <code>/metrics</code> os contadores dos caches de totais do dashboard,
+ * para dimensionar o tamanho máximo e a validade das entradas.
+ */
+@Component
+public class CacheTotaisPublicMetrics implements PublicMetrics {
+
+    @Autowired
+    private CacheTotaisDashboard cacheTotais;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metricas = new ArrayList<>(10);
+        adiciona(metricas, "cache.totais.periodo", cacheTotais.getTotaisPorPeriodo());
+        adiciona(metricas, "cache.totais.categoria", cacheTotais.getTotaisPorCategoria());
+        return metricas;
+    }
+
+    private void adiciona(List<Metric<?>> metricas, String prefixo, CachePorPeriodo<?> cache) {
+        metricas.add(new Metric<>(prefixo + ".size", cache.getTamanho()));
+        metricas.add(new Metric<>(prefixo + ".hits", cache.getAcertos()));
+        metricas.add(new Metric<>(prefixo + ".misses", cache.getFalhas()));
+        metricas.add(new Metric<>(prefixo + ".evictions", cache.getExpulsoes()));
+        metricas.add(new Metric<>(prefixo + ".invalidations", cache.getInvalidacoes()));
+    }
+}
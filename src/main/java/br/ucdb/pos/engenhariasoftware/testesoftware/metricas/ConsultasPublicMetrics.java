@@ -0,0 +1,40 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expõe no endpoint <code>/metrics</code> o reaproveitamento dos planos de consulta do Hibernate.
+ * Cada texto de consulta distinto é interpretado e planejado uma vez; as demais execuções do mesmo
+ * texto são atendidas pelo cache de planos. Consultas montadas por concatenação aparecem aqui como
+ * textos distintos e derrubam a taxa de acerto.
+ */
+@Component
+public class ConsultasPublicMetrics implements PublicMetrics {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final long execucoes = estatisticas.getQueryExecutionCount();
+        final long distintas = estatisticas.getQueries().length;
+
+        final List<Metric<?>> metricas = new ArrayList<>(3);
+        metricas.add(new Metric<>("hibernate.queries.executions", execucoes));
+        metricas.add(new Metric<>("hibernate.queries.distinct", distintas));
+        metricas.add(new Metric<>("hibernate.queries.plan.hitRatio",
+                execucoes == 0 ? 0.0 : (double) Math.max(execucoes - distintas, 0) / execucoes));
+        return metricas;
+    }
+}
@@ -0,0 +1,28 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.DiarioEscritaLancamentos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Expõe no endpoint <code>/metrics</code> quantas inclusões do diário de escrita adiada ainda não
+ * foram gravadas no banco e quantas foram descartadas por não passarem nas restrições do banco.
+ */
+@Component
+public class EscritaAdiadaPublicMetrics implements PublicMetrics {
+
+    @Autowired
+    private DiarioEscritaLancamentos diarioEscrita;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("lancamento.escritaAdiada.pending", diarioEscrita.getPendentes()),
+                new Metric<>("lancamento.escritaAdiada.rejected", diarioEscrita.getRejeitados()));
+    }
+}
@@ -0,0 +1,65 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de durações com faixas fixas em milissegundos, seguro para registro concorrente.
+ * Cada faixa conta as medições até o seu limite e acima do limite da faixa anterior; a última
+ * faixa conta as medições acima do maior limite.
+ */
+public class HistogramaTempo {
+
+    private static final long[] LIMITES_MS = {1, 5, 10, 50, 100, 500, 1_000};
+
+    private final AtomicLongArray faixas = new AtomicLongArray(LIMITES_MS.length + 1);
+    private final AtomicLong quantidade = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maiorNanos = new AtomicLong();
+
+    public void registra(long nanos) {
+        faixas.incrementAndGet(faixa(nanos));
+        quantidade.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long maior;
+        while (nanos > (maior = maiorNanos.get()) && !maiorNanos.compareAndSet(maior, nanos)) {
+            // outra thread registrou um maior valor ao mesmo tempo; tenta de novo
+        }
+    }
+
+    static int faixa(long nanos) {
+        for (int i = 0; i < LIMITES_MS.length; i++) {
+            if (nanos <= TimeUnit.MILLISECONDS.toNanos(LIMITES_MS[i])) {
+                return i;
+            }
+        }
+        return LIMITES_MS.length;
+    }
+
+    public long getQuantidade() {
+        return quantidade.get();
+    }
+
+    public long getFaixa(int indice) {
+        return faixas.get(indice);
+    }
+
+    /**
+     * Adiciona a quantidade, a média, o maior tempo e uma métrica por faixa, como
+     * <code>prefixo.le.5ms</code> e <code>prefixo.gt.1000ms</code>.
+     */
+    public void adiciona(String prefixo, Collection<Metric<?>> metricas) {
+        final long total = quantidade.get();
+        metricas.add(new Metric<>(prefixo + ".count", total));
+        metricas.add(new Metric<>(prefixo + ".mean.ms", total == 0 ? 0.0 : totalNanos.get() / 1e6 / total));
+        metricas.add(new Metric<>(prefixo + ".max.ms", maiorNanos.get() / 1e6));
+        for (int i = 0; i < LIMITES_MS.length; i++) {
+            metricas.add(new Metric<>(prefixo + ".le." + LIMITES_MS[i] + "ms", faixas.get(i)));
+        }
+        metricas.add(new Metric<>(prefixo + ".gt." + LIMITES_MS[LIMITES_MS.length - 1] + "ms", faixas.get(LIMITES_MS.length)));
+    }
+}
@@ -0,0 +1,87 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Expõe no endpoint <code>/metrics</code> o estado do pool de conexões (ativas, ociosas e threads
+ * esperando por uma conexão) e o histograma do tempo de obtenção das conexões pelo Hibernate.
+ * O pool criado pelo Spring Boot não é substituído, para que as métricas <code>datasource.primary.*</code>
+ * e o MBean do pool continuem a reconhecê-lo; o tempo é medido por um {@link ProvedorConexoesCronometrado}
+ * entregue à fábrica de entity managers.
+ */
+@Component
+public class PoolConexoesPublicMetrics implements PublicMetrics, BeanPostProcessor {
+
+    private final HistogramaTempo aquisicao = new HistogramaTempo();
+
+    private volatile DataSource pool;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String nome) {
+        if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+            ((LocalContainerEntityManagerFactoryBean) bean).getJpaPropertyMap()
+                    .put(AvailableSettings.CONNECTION_PROVIDER, new ProvedorConexoesCronometrado(aquisicao));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String nome) {
+        if (bean instanceof DataSource && pool == null) {
+            pool = (DataSource) bean;
+        }
+        return bean;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metricas = new ArrayList<>();
+        final DataSource pool = this.pool;
+        if (pool == null) {
+            return metricas;
+        }
+        metricas.add(new Metric<>("datasource.pool.active", pool.getActive()));
+        metricas.add(new Metric<>("datasource.pool.idle", pool.getIdle()));
+        metricas.add(new Metric<>("datasource.pool.waiting", pool.getWaitCount()));
+        metricas.add(new Metric<>("datasource.pool.size", pool.getSize()));
+        metricas.add(new Metric<>("datasource.pool.max", pool.getMaxActive()));
+        aquisicao.adiciona("datasource.pool.acquire", metricas);
+        return metricas;
+    }
+
+    /**
+     * Provedor de conexões padrão do Hibernate sobre o DataSource da aplicação, cronometrando cada
+     * <code>getConnection</code>.
+     */
+    private static class ProvedorConexoesCronometrado extends DatasourceConnectionProviderImpl {
+
+        private final HistogramaTempo aquisicao;
+
+        ProvedorConexoesCronometrado(HistogramaTempo aquisicao) {
+            this.aquisicao = aquisicao;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            final long inicio = System.nanoTime();
+            try {
+                return super.getConnection();
+            } finally {
+                aquisicao.registra(System.nanoTime() - inicio);
+            }
+        }
+    }
+}
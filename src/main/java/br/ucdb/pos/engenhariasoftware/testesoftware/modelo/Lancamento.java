@@ -1,11 +1,16 @@
 package br.ucdb.pos.engenhariasoftware.testesoftware.modelo;
 
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
 import br.ucdb.pos.engenhariasoftware.testesoftware.converter.MoneyDeserialize;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.validator.constraints.NotBlank;
 
 import javax.persistence.*;
@@ -13,28 +18,58 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.util.Date;
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.ALOCACAO_IDS_LANCAMENTO;
 import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.REGIAO_CONSULTAS_LANCAMENTO;
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.REGIAO_LANCAMENTO;
 
 @NamedQueries(value = {
-		@NamedQuery(name = "lancamento.maisRecentes", query = "select l from Lancamento l order by l.dataLancamento"),
+		@NamedQuery(name = "lancamento.maisRecentes", query = "select l from Lancamento l order by l.dataLancamento, l.id",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
+		@NamedQuery(name = "lancamento.maisRecentesApos", query = "select l from Lancamento l " +
+				" where l.dataLancamento >= :dataLancamento and (l.dataLancamento > :dataLancamento or l.id > :id) " +
+				" order by l.dataLancamento, l.id",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
 		@NamedQuery(name = "lancamento.totalLancamentosPorPeriodo",
 				query = "select new br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO(sum(l.valor), l.tipoLancamento) " +
-						" from Lancamento l where l.dataLancamento between :dataInicial and :dataFinal group by l.tipoLancamento"),
+						" from Lancamento l where l.dataLancamento between :dataInicial and :dataFinal group by l.tipoLancamento",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
 		@NamedQuery(name = "lancamento.totalLancamentosPorPeriodoPorCategoria",
 				query = "select new br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO(sum(l.valor), l.tipoLancamento, l.categoria) " +
-						" from Lancamento l where l.dataLancamento between :dataInicial and :dataFinal group by l.tipoLancamento, l.categoria order by l.tipoLancamento"),
+						" from Lancamento l where l.dataLancamento between :dataInicial and :dataFinal group by l.tipoLancamento, l.categoria order by l.tipoLancamento",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
+		@NamedQuery(name = "lancamento.resumo", query = "select count(l), sum(l.valor) from Lancamento l"),
+		@NamedQuery(name = "lancamento.totaisPorData", query = "select l.dataLancamento, l.tipoLancamento, l.categoria, sum(l.valor), count(l) " +
+				" from Lancamento l group by l.dataLancamento, l.tipoLancamento, l.categoria"),
 		@NamedQuery(name = "lancamento.busca", query = "select l from Lancamento l where (upper(l.descricao) like upper( :itemBusca)) " +
 				"  or (upper(l.tipoLancamento) like upper( :itemBusca)) or (upper(l.categoria) like upper( :itemBusca))" +
-				"  order by l.dataLancamento ")
+				"  order by l.dataLancamento ",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
+		@NamedQuery(name = "lancamento.conta", query = "select count(l) from Lancamento l",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
+		@NamedQuery(name = "lancamento.contaBusca", query = "select count(l) from Lancamento l where (upper(l.descricao) like upper( :itemBusca)) " +
+				"  or (upper(l.tipoLancamento) like upper( :itemBusca)) or (upper(l.categoria) like upper( :itemBusca))",
+				hints = {@QueryHint(name = QueryHints.CACHEABLE, value = "true"), @QueryHint(name = QueryHints.CACHE_REGION, value = REGIAO_CONSULTAS_LANCAMENTO)}),
+		@NamedQuery(name = "lancamento.indexaveis", query = "select l.id, l.descricao, l.dataLancamento, l.tipoLancamento, l.categoria " +
+				" from Lancamento l where l.id > :id order by l.id"),
+		@NamedQuery(name = "lancamento.colunas", query = "select l.id, l.dataLancamento, l.valor, l.tipoLancamento, l.categoria " +
+				" from Lancamento l where l.id > :id order by l.id")
 })
 
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_lancamento_data_id", columnList = "dataLancamento, id"),
+		// cobre os totais por período: filtro pela data, agrupamento por tipo e categoria e soma dos valores
+		@Index(name = "idx_lancamento_periodo", columnList = "dataLancamento, tipoLancamento, categoria, valor_centavos")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGIAO_LANCAMENTO)
 @EqualsAndHashCode(of = {"id"})
 public class Lancamento {
 
-
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_seq")
+	@SequenceGenerator(name = "lancamento_seq", sequenceName = "lancamento_seq", allocationSize = ALOCACAO_IDS_LANCAMENTO)
 	@Getter @Setter
 	private long id;
 
@@ -42,6 +77,9 @@ public class Lancamento {
 	@Getter @Setter
     private String descricao;
 
+	@Convert(converter = CentavosConverter.class)
+	@Column(name = "valor_centavos")
+	@ColumnDefault("0")
 	@JsonDeserialize(using = MoneyDeserialize.class)
 	@NotNull(message = "O valor deve ser informado")
 	@Min(message = "O valor deve ser maior que zero", value = 0)
@@ -0,0 +1,84 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.modelo;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Lançamento de um período fechado, movido da tabela de lançamentos pelo arquivamento. Mantém o id
+ * original; editado com uma data de um ano aberto, volta para a tabela de lançamentos. Os totais
+ * diários continuam contando os lançamentos arquivados.
+ */
+@NamedQueries(value = {
+		@NamedQuery(name = "lancamentoArquivado.porIds", query = "select a from LancamentoArquivado a where a.id in :ids"),
+		@NamedQuery(name = "lancamentoArquivado.resumo", query = "select count(a), sum(a.valor) from LancamentoArquivado a"),
+		@NamedQuery(name = "lancamentoArquivado.totaisPorData", query = "select a.dataLancamento, a.tipoLancamento, a.categoria, sum(a.valor), count(a) " +
+				" from LancamentoArquivado a group by a.dataLancamento, a.tipoLancamento, a.categoria"),
+		@NamedQuery(name = "lancamentoArquivado.indexaveis", query = "select a.id, a.descricao, a.dataLancamento, a.tipoLancamento, a.categoria " +
+				" from LancamentoArquivado a where a.id > :id order by a.id"),
+		@NamedQuery(name = "lancamentoArquivado.colunas", query = "select a.id, a.dataLancamento, a.valor, a.tipoLancamento, a.categoria " +
+				" from LancamentoArquivado a where a.id > :id order by a.id")
+})
+
+@Entity
+@Table(indexes = {
+		@Index(name = "idx_lancamento_arquivado_data_id", columnList = "dataLancamento, id"),
+		@Index(name = "idx_lancamento_arquivado_periodo", columnList = "dataLancamento, tipoLancamento, categoria, valor_centavos")
+})
+@EqualsAndHashCode(of = {"id"})
+public class LancamentoArquivado {
+
+	@Id
+	@Getter @Setter
+	private long id;
+
+	@Getter @Setter
+	private String descricao;
+
+	@Convert(converter = CentavosConverter.class)
+	@Column(name = "valor_centavos")
+	@Getter @Setter
+	private BigDecimal valor;
+
+	@Getter @Setter
+	private Date dataLancamento;
+
+	@Getter @Setter
+	@Enumerated(EnumType.STRING)
+	private TipoLancamento tipoLancamento;
+
+	@Getter @Setter
+	@Enumerated(EnumType.STRING)
+	private Categoria categoria;
+
+	/**
+	 * @return cópia desligada do banco, para exibição junto com os lançamentos atuais
+	 */
+	public Lancamento paraLancamento() {
+		final Lancamento lancamento = new Lancamento();
+		lancamento.setId(id);
+		lancamento.setDescricao(descricao);
+		lancamento.setValor(valor);
+		lancamento.setDataLancamento(dataLancamento);
+		lancamento.setTipoLancamento(tipoLancamento);
+		lancamento.setCategoria(categoria);
+		return lancamento;
+	}
+
+	/**
+	 * Copia os dados editados, mantendo o id.
+	 * @param lancamento dados vindos do formulário de edição
+	 */
+	public void atualiza(Lancamento lancamento) {
+		descricao = lancamento.getDescricao();
+		valor = lancamento.getValor();
+		dataLancamento = lancamento.getDataLancamento();
+		tipoLancamento = lancamento.getTipoLancamento();
+		categoria = lancamento.getCategoria();
+	}
+}
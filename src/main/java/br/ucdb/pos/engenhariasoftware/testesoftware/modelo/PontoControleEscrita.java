@@ -0,0 +1,25 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.modelo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Última sequência do diário de escrita adiada já gravada na tabela de lançamentos. É atualizada
+ * na mesma transação que grava os lançamentos do diário, de modo que a recuperação na
+ * inicialização regrava exatamente os registros que não chegaram ao banco.
+ */
+@Entity
+public class PontoControleEscrita {
+
+	public static final long ID = 1;
+
+	@Id
+	@Getter @Setter
+	private long id = ID;
+
+	@Getter @Setter
+	private long sequencia;
+}
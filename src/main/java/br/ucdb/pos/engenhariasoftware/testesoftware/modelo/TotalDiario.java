@@ -0,0 +1,60 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.modelo;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Total diário dos lançamentos por tipo e categoria, mantido a cada gravação de lançamento
+ * para que os totais do dashboard somem poucas linhas em vez de percorrer todos os lançamentos.
+ */
+@NamedQueries(value = {
+		@NamedQuery(name = "totalDiario.totalPorPeriodo",
+				query = "select new br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO(sum(t.totalCentavos), t.tipoLancamento) " +
+						" from TotalDiario t where t.dia between :dataInicial and :dataFinal group by t.tipoLancamento"),
+		@NamedQuery(name = "totalDiario.totalPorPeriodoPorCategoria",
+				query = "select new br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO(sum(t.totalCentavos), t.tipoLancamento, t.categoria) " +
+						" from TotalDiario t where t.dia between :dataInicial and :dataFinal group by t.tipoLancamento, t.categoria order by t.tipoLancamento"),
+		@NamedQuery(name = "totalDiario.doDia", query = "select t from TotalDiario t " +
+				" where t.dia = :dia and t.tipoLancamento = :tipoLancamento and t.categoria = :categoria"),
+		@NamedQuery(name = "totalDiario.doDiaSemCategoria", query = "select t from TotalDiario t " +
+				" where t.dia = :dia and t.tipoLancamento = :tipoLancamento and t.categoria is null"),
+		@NamedQuery(name = "totalDiario.resumo", query = "select sum(t.quantidade), sum(t.totalCentavos) from TotalDiario t")
+})
+
+@Entity
+@Table(uniqueConstraints = {
+		// um só total por dia, tipo e categoria: totalDiario.doDia devolve no máximo uma linha
+		@UniqueConstraint(name = "uk_total_diario_dia", columnNames = {"dia", "tipoLancamento", "categoria"})
+})
+@EqualsAndHashCode(of = {"id"})
+public class TotalDiario {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Getter @Setter
+	private long id;
+
+	@Temporal(TemporalType.DATE)
+	@Getter @Setter
+	private Date dia;
+
+	@Getter @Setter
+	@Enumerated(EnumType.STRING)
+	private TipoLancamento tipoLancamento;
+
+	@Getter @Setter
+	@Enumerated(EnumType.STRING)
+	private Categoria categoria;
+
+	@Getter @Setter
+	@ColumnDefault("0")
+	private long totalCentavos;
+
+	@Getter @Setter
+	private long quantidade;
+}
@@ -0,0 +1,30 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.repository;
+
+import org.hibernate.dialect.HSQLDialect;
+
+import java.util.List;
+
+/**
+ * Dialeto do HSQLDB que aceita a dica {@link #USA_INDICE_DA_ORDENACAO}.
+ *
+ * Entre índices que começam pela mesma coluna, o HSQLDB escolhe o que tem mais colunas: a listagem
+ * por cursor, ordenada por (dataLancamento, id), acabaria percorrendo o índice do período e ordenando
+ * o resultado inteiro antes de aplicar o limite. Com a dica, o SQL termina em <code>using index</code>
+ * e o HSQLDB percorre o índice da ordenação a partir do cursor, parando no limite.
+ */
+public class DialetoHsqldb extends HSQLDialect {
+
+    /**
+     * Dica para consultas com <code>order by</code> e limite ({@link javax.persistence.Query#setMaxResults(int)});
+     * sem limite, o <code>using index</code> não é aceito pelo HSQLDB.
+     */
+    public static final String USA_INDICE_DA_ORDENACAO = "using index";
+
+    @Override
+    public String getQueryHintString(String sql, List<String> hints) {
+        if (hints.contains(USA_INDICE_DA_ORDENACAO)) {
+            return sql + " " + USA_INDICE_DA_ORDENACAO;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,139 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+
+/**
+ * Soma os totais por categoria de intervalos longos dividindo o intervalo em meses: cada mês é
+ * consultado separadamente num {@link ForkJoinPool} de tamanho limitado e os totais parciais
+ * são somados no final. Intervalos de um único mês são consultados diretamente.
+ */
+@Component
+public class AgregadorPorMes {
+
+    private static final Comparator<TotalLancamentoCategoriaVO> ORDEM = Comparator
+            .comparing(TotalLancamentoCategoriaVO::getTipo)
+            .thenComparing(TotalLancamentoCategoriaVO::getCategoria, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param paralelismo número máximo de meses consultados ao mesmo tempo; zero usa o número de
+     *                    processadores. Cada consulta ocupa uma conexão do pool do banco.
+     */
+    public AgregadorPorMes(@Value("${lancamento.agregacao.paralelismo:0}") int paralelismo) {
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void encerra() {
+        pool.shutdown();
+    }
+
+    public int getParalelismo() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @param dataInicial primeiro dia do intervalo
+     * @param dataFinal último dia do intervalo
+     * @param consulta totais por categoria de um intervalo de dias; é chamada uma vez por mês,
+     *                 em paralelo, e não deve depender da transação de quem chama
+     * @return totais por tipo e categoria do intervalo inteiro, ordenados por tipo e categoria
+     */
+    public List<TotalLancamentoCategoriaVO> agrega(Date dataInicial, Date dataFinal,
+                                                   BiFunction<Date, Date, List<TotalLancamentoCategoriaVO>> consulta) {
+        final List<Date[]> meses = divideEmMeses(dataInicial, dataFinal);
+        if (meses.size() < 2) {
+            return consulta.apply(dataInicial, dataFinal);
+        }
+        final Map<Grupo, Long> totais = pool.invoke(new Tarefa(meses, 0, meses.size(), consulta));
+        final List<TotalLancamentoCategoriaVO> resultado = new ArrayList<>(totais.size());
+        totais.forEach((grupo, centavos) -> resultado.add(new TotalLancamentoCategoriaVO(centavos, grupo.tipo, grupo.categoria)));
+        resultado.sort(ORDEM);
+        return resultado;
+    }
+
+    /**
+     * @return intervalos de cada mês, o primeiro começando em <code>dataInicial</code> e o último
+     * terminando em <code>dataFinal</code>; vazio quando o intervalo é inválido
+     */
+    static List<Date[]> divideEmMeses(Date dataInicial, Date dataFinal) {
+        final ZoneId fuso = ZoneId.systemDefault();
+        final LocalDate ultimoDia = Instant.ofEpochMilli(dataFinal.getTime()).atZone(fuso).toLocalDate();
+        LocalDate inicio = Instant.ofEpochMilli(dataInicial.getTime()).atZone(fuso).toLocalDate();
+        final List<Date[]> meses = new ArrayList<>();
+        Date inicioMes = dataInicial;
+        while (!inicio.isAfter(ultimoDia)) {
+            final LocalDate fim = inicio.withDayOfMonth(inicio.lengthOfMonth());
+            if (!fim.isBefore(ultimoDia)) {
+                meses.add(new Date[]{inicioMes, dataFinal});
+                break;
+            }
+            meses.add(new Date[]{inicioMes, Date.from(fim.atStartOfDay(fuso).toInstant())});
+            inicio = fim.plusDays(1);
+            inicioMes = Date.from(inicio.atStartOfDay(fuso).toInstant());
+        }
+        return meses;
+    }
+
+    private static class Tarefa extends RecursiveTask<Map<Grupo, Long>> {
+
+        private final List<Date[]> meses;
+        private final int inicio;
+        private final int fim;
+        private final BiFunction<Date, Date, List<TotalLancamentoCategoriaVO>> consulta;
+
+        Tarefa(List<Date[]> meses, int inicio, int fim, BiFunction<Date, Date, List<TotalLancamentoCategoriaVO>> consulta) {
+            this.meses = meses;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.consulta = consulta;
+        }
+
+        @Override
+        protected Map<Grupo, Long> compute() {
+            if (fim - inicio == 1) {
+                final Date[] mes = meses.get(inicio);
+                final Map<Grupo, Long> totais = new HashMap<>();
+                for (TotalLancamentoCategoriaVO total : consulta.apply(mes[0], mes[1])) {
+                    // os totais de saída vêm negativos; a soma é refeita com o valor original
+                    final long centavos = CentavosConverter.centavos(total.getTotal());
+                    totais.merge(new Grupo(total.getTipo(), total.getCategoria()), total.isSaida() ? -centavos : centavos, Long::sum);
+                }
+                return totais;
+            }
+            final int meio = (inicio + fim) >>> 1;
+            final Tarefa segunda = new Tarefa(meses, meio, fim, consulta);
+            segunda.fork();
+            final Map<Grupo, Long> totais = new Tarefa(meses, inicio, meio, consulta).compute();
+            segunda.join().forEach((grupo, centavos) -> totais.merge(grupo, centavos, Long::sum));
+            return totais;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class Grupo {
+        private final TipoLancamento tipo;
+        private final Categoria categoria;
+
+        Grupo(TipoLancamento tipo, Categoria categoria) {
+            this.tipo = tipo;
+            this.categoria = categoria;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa as gravações de lançamentos feitas ao mesmo tempo em uma única transação, de modo que o
+ * banco grava o log em disco uma vez por grupo e não uma vez por lançamento. A primeira thread que
+ * encontra o agrupador livre aplica as gravações da fila, inclusive as das outras threads, que
+ * esperam pelo seu resultado. Se a transação do grupo falhar, cada gravação é refeita na sua
+ * própria transação, para que só quem causou a falha receba o erro.
+ * Gravações feitas dentro de uma transação já aberta são aplicadas diretamente nela.
+ */
+@Component
+public class AgrupadorGravacoes {
+
+    /**
+     * Intervalo entre as tentativas de quem espera de assumir a fila, caso ninguém a esteja aplicando.
+     */
+    private static final long ESPERA_MILLIS = 5;
+
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean habilitado;
+    private final long janelaNanos;
+    private final int tamanhoMaximo;
+
+    private final BlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+    private final ReentrantLock aplicacao = new ReentrantLock();
+    private final AtomicInteger emAndamento = new AtomicInteger();
+
+    /**
+     * @param janelaMicros quanto a thread que aplica a fila espera por outras gravações quando há
+     *                     mais de uma em andamento; zero agrupa apenas as que chegaram durante a transação anterior
+     * @param tamanhoMaximo máximo de gravações por transação
+     */
+    @Autowired
+    public AgrupadorGravacoes(PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                              @Value("${lancamento.agrupamento.habilitado:true}") boolean habilitado,
+                              @Value("${lancamento.agrupamento.janela-micros:500}") long janelaMicros,
+                              @Value("${lancamento.agrupamento.tamanho-maximo:100}") int tamanhoMaximo) {
+        this.transactionManager = transactionManager;
+        this.eventPublisher = eventPublisher;
+        this.habilitado = habilitado;
+        this.janelaNanos = TimeUnit.MICROSECONDS.toNanos(janelaMicros);
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    /**
+     * @param gravacao altera a tabela de lançamentos e descreve a alteração; executa na transação
+     *                 do grupo, possivelmente em outra thread, e pode ser executada de novo se a
+     *                 transação do grupo for desfeita
+     * @return a alteração feita pela gravação
+     */
+    public AlteracaoLancamento executa(Supplier<AlteracaoLancamento> gravacao) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            final AlteracaoLancamento alteracao = gravacao.get();
+            eventPublisher.publishEvent(new LancamentosAlteradosEvent(alteracao));
+            return alteracao;
+        }
+        if (!habilitado) {
+            final Pedido pedido = new Pedido(gravacao);
+            aplicaIsolada(pedido);
+            return pedido.obtem();
+        }
+        final Pedido pedido = new Pedido(gravacao);
+        emAndamento.incrementAndGet();
+        try {
+            fila.add(pedido);
+            while (!pedido.resultado.isDone()) {
+                if (aplicacao.tryLock()) {
+                    try {
+                        if (!pedido.resultado.isDone()) {
+                            aplicaFila();
+                        }
+                    } finally {
+                        aplicacao.unlock();
+                    }
+                } else {
+                    aguarda(pedido);
+                }
+            }
+        } finally {
+            emAndamento.decrementAndGet();
+        }
+        return pedido.obtem();
+    }
+
+    private static void aguarda(Pedido pedido) {
+        try {
+            pedido.resultado.get(ESPERA_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // o resultado, ou o erro, é lido depois do laço
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void aplicaFila() {
+        if (janelaNanos > 0 && emAndamento.get() > fila.size()) {
+            // há gravações em andamento que ainda não entraram na fila
+            LockSupport.parkNanos(janelaNanos);
+        }
+        final List<Pedido> grupo = new ArrayList<>(Math.min(fila.size(), tamanhoMaximo));
+        fila.drainTo(grupo, tamanhoMaximo);
+        if (grupo.isEmpty()) {
+            return;
+        }
+        try {
+            aplica(grupo);
+        } finally {
+            for (Pedido pedido : grupo) {
+                pedido.resultado.completeExceptionally(new IllegalStateException("Gravação não aplicada"));
+            }
+        }
+    }
+
+    private void aplica(List<Pedido> grupo) {
+        if (grupo.size() == 1) {
+            aplicaIsolada(grupo.get(0));
+            return;
+        }
+        final TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        try {
+            final List<AlteracaoLancamento> alteracoes = transacao.execute(status -> grava(grupo));
+            for (int i = 0; i < grupo.size(); i++) {
+                grupo.get(i).resultado.complete(alteracoes.get(i));
+            }
+        } catch (RuntimeException e) {
+            grupo.forEach(this::aplicaIsolada);
+        }
+    }
+
+    private void aplicaIsolada(Pedido pedido) {
+        try {
+            final AlteracaoLancamento alteracao = new TransactionTemplate(transactionManager)
+                    .execute(status -> grava(Collections.singletonList(pedido)).get(0));
+            pedido.resultado.complete(alteracao);
+        } catch (RuntimeException e) {
+            pedido.resultado.completeExceptionally(e);
+        }
+    }
+
+    private List<AlteracaoLancamento> grava(List<Pedido> pedidos) {
+        final List<AlteracaoLancamento> alteracoes = new ArrayList<>(pedidos.size());
+        for (Pedido pedido : pedidos) {
+            alteracoes.add(pedido.gravacao.get());
+        }
+        eventPublisher.publishEvent(new LancamentosAlteradosEvent(alteracoes));
+        return alteracoes;
+    }
+
+    private static class Pedido {
+
+        private final Supplier<AlteracaoLancamento> gravacao;
+        private final CompletableFuture<AlteracaoLancamento> resultado = new CompletableFuture<>();
+
+        Pedido(Supplier<AlteracaoLancamento> gravacao) {
+            this.gravacao = gravacao;
+        }
+
+        /**
+         * @return a alteração, ou lança na thread de quem pediu a gravação o erro que ela causou
+         */
+        AlteracaoLancamento obtem() {
+            try {
+                return resultado.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Aplica ao banco HSQLDB em arquivo as configurações do log de transações: o tamanho do log que
+ * dispara o checkpoint automático e o atraso na gravação do log em disco. Logs maiores fazem menos
+ * checkpoints em cargas de escrita intensa; um atraso maior agrupa mais gravações por sincronização,
+ * ao custo de perder as transações desse intervalo numa queda do processo.
+ * Sem as propriedades, o banco mantém as configurações que já tem.
+ */
+@Component
+public class AjusteArquivosBanco {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Tamanho do log, em MB, que dispara o checkpoint; zero desliga o checkpoint automático.
+     */
+    @Value("${lancamento.hsqldb.log-size-mb:#{null}}")
+    private Integer tamanhoLogMb;
+
+    @Value("${lancamento.hsqldb.write-delay-millis:#{null}}")
+    private Integer atrasoGravacaoMillis;
+
+    @PostConstruct
+    public void ajusta() {
+        if (tamanhoLogMb != null) {
+            jdbcTemplate.execute("set files log size " + tamanhoLogMb);
+        }
+        if (atrasoGravacaoMillis != null) {
+            jdbcTemplate.execute("set files write delay " + atrasoGravacaoMillis + " millis");
+        }
+    }
+}
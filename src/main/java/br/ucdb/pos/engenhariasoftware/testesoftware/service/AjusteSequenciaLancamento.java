@@ -0,0 +1,45 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.ALOCACAO_IDS_LANCAMENTO;
+
+/**
+ * Os lançamentos gravados antes da sequência usavam ids de identidade; antes que qualquer
+ * inclusão aconteça, a sequência é posicionada depois do maior id existente.
+ * O otimizador "pooled" usa os ids (valor - alocação, valor], daí a folga de uma alocação.
+ * Os lançamentos arquivados mantêm seus ids e também contam para o maior id.
+ */
+@Component
+public class AjusteSequenciaLancamento {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Garante que o esquema (e a sequência) já foi atualizado pelo Hibernate.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void ajusta() {
+        final Long maiorId = jdbcTemplate.queryForObject("select max(id) from (select id from lancamento " +
+                "union all select id from lancamento_arquivado) todos", Long.class);
+        if (maiorId == null) {
+            return;
+        }
+        final List<Long> proximo = jdbcTemplate.queryForList("select next_value from information_schema.sequences " +
+                "where sequence_name = 'LANCAMENTO_SEQ'", Long.class);
+        final long minimo = maiorId + ALOCACAO_IDS_LANCAMENTO;
+        if (!proximo.isEmpty() && proximo.get(0) < minimo) {
+            jdbcTemplate.execute("alter sequence lancamento_seq restart with " + minimo);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import lombok.Getter;
+
+/**
+ * Estado de um lançamento antes e depois de uma gravação. Na inclusão o estado anterior
+ * é <code>null</code> e na remoção o estado atual é <code>null</code>.
+ * Guarda cópias desacopladas da sessão JPA, para que possam ser lidas depois do commit.
+ */
+public class AlteracaoLancamento {
+
+    @Getter
+    private final Lancamento anterior;
+
+    @Getter
+    private final Lancamento atual;
+
+    public AlteracaoLancamento(Lancamento anterior, Lancamento atual) {
+        this.anterior = copia(anterior);
+        this.atual = copia(atual);
+    }
+
+    static Lancamento copia(Lancamento lancamento) {
+        if (lancamento == null) {
+            return null;
+        }
+        Lancamento copia = new Lancamento();
+        copia.setId(lancamento.getId());
+        copia.setDescricao(lancamento.getDescricao());
+        copia.setValor(lancamento.getValor());
+        copia.setDataLancamento(lancamento.getDataLancamento());
+        copia.setTipoLancamento(lancamento.getTipoLancamento());
+        copia.setCategoria(lancamento.getCategoria());
+        return copia;
+    }
+}
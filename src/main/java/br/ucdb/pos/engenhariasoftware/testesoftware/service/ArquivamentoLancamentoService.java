@@ -0,0 +1,124 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.LancamentoArquivado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Move os lançamentos dos anos fechados para a tabela de lançamentos arquivados, de modo que a
+ * listagem e os índices da tabela de lançamentos só percorram o período recente. Cada lote é movido
+ * na sua própria transação; os totais diários não mudam, pois continuam contando os arquivados.
+ * Habilitado pela propriedade <code>lancamento.arquivamento.habilitado</code>.
+ */
+@Service
+public class ArquivamentoLancamentoService {
+
+    private static final int TAMANHO_LOTE = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VersaoLancamentos versaoLancamentos;
+
+    @Value("${lancamento.arquivamento.habilitado:false}")
+    private boolean habilitado;
+
+    /**
+     * Anos mantidos na tabela de lançamentos, contando o ano atual.
+     */
+    @Value("${lancamento.arquivamento.anos-abertos:2}")
+    private int anosAbertos;
+
+    @Scheduled(cron = "${lancamento.arquivamento.cron:0 30 2 * * *}")
+    public void arquivaAgendado() {
+        if (habilitado) {
+            arquiva(corteAtual());
+        }
+    }
+
+    /**
+     * @return lançamentos com data anterior pertencem aos anos fechados
+     */
+    public Date corteAtual() {
+        return corte(LocalDate.now(), anosAbertos);
+    }
+
+    /**
+     * @param corte lançamentos com data anterior são arquivados
+     * @return quantidade de lançamentos arquivados
+     */
+    public int arquiva(Date corte) {
+        final TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        int arquivados = 0;
+        int movidos;
+        do {
+            movidos = transacao.execute(status -> moveLote(corte));
+            arquivados += movidos;
+        } while (movidos == TAMANHO_LOTE);
+        if (arquivados > 0) {
+            // a listagem mudou: as respostas condicionais guardadas pelos navegadores deixam de valer
+            versaoLancamentos.incrementa();
+        }
+        return arquivados;
+    }
+
+    private int moveLote(Date corte) {
+        final List<Long> ids = entityManager.createQuery("select l.id from Lancamento l " +
+                " where l.dataLancamento < :corte order by l.id", Long.class)
+                .setParameter("corte", corte)
+                .setMaxResults(TAMANHO_LOTE)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.createQuery("insert into LancamentoArquivado " +
+                " (id, descricao, valor, dataLancamento, tipoLancamento, categoria) " +
+                " select l.id, l.descricao, l.valor, l.dataLancamento, l.tipoLancamento, l.categoria " +
+                " from Lancamento l where l.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        entityManager.createQuery("delete from Lancamento l where l.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids.size();
+    }
+
+    /**
+     * Devolve um lançamento arquivado para a tabela de lançamentos, com o mesmo id, na transação
+     * em andamento. As alterações já feitas na entidade arquivada são levadas junto.
+     */
+    public void desarquiva(LancamentoArquivado arquivado) {
+        entityManager.flush();
+        entityManager.createQuery("insert into Lancamento " +
+                " (id, descricao, valor, dataLancamento, tipoLancamento, categoria) " +
+                " select a.id, a.descricao, a.valor, a.dataLancamento, a.tipoLancamento, a.categoria " +
+                " from LancamentoArquivado a where a.id = :id")
+                .setParameter("id", arquivado.getId())
+                .executeUpdate();
+        entityManager.remove(arquivado);
+        entityManager.flush();
+    }
+
+    /**
+     * @return primeiro dia do ano mais antigo mantido na tabela de lançamentos
+     */
+    static Date corte(LocalDate hoje, int anosAbertos) {
+        final LocalDate inicio = hoje.withDayOfYear(1).minusYears(Math.max(anosAbertos, 1) - 1);
+        return Date.from(inicio.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
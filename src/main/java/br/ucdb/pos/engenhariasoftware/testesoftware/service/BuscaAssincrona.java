@@ -0,0 +1,99 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.ResultadoVO;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa as buscas de lançamentos num pool próprio e limitado, fora das threads do servidor web:
+ * picos de busca ocupam apenas esse pool e, com a fila cheia, as novas buscas são recusadas em vez
+ * de atrasar as demais páginas. Uma nova busca do mesmo cliente substitui a anterior; se a anterior
+ * ainda está na fila, ela nem chega a ser executada.
+ * <p>
+ * Buscas em execução não são interrompidas: a interrupção de uma thread durante uma leitura fecha
+ * os canais de arquivo do HSQLDB. O resultado delas apenas é descartado.
+ */
+@Component
+public class BuscaAssincrona {
+
+    private final LancamentoService lancamentoService;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Tempo máximo de espera por uma busca, contando o tempo na fila.
+     */
+    @Getter
+    private final long timeoutMillis;
+
+    /**
+     * Busca mais recente de cada cliente, enquanto não termina.
+     */
+    private final ConcurrentMap<String, CompletableFuture<ResultadoVO>> emAndamento = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BuscaAssincrona(LancamentoService lancamentoService,
+                           @Value("${lancamento.busca.threads:4}") int threads,
+                           @Value("${lancamento.busca.fila:32}") int fila,
+                           @Value("${lancamento.busca.timeout-millis:5000}") long timeoutMillis) {
+        this.lancamentoService = lancamentoService;
+        this.timeoutMillis = timeoutMillis;
+        final AtomicInteger numero = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(fila), tarefa -> {
+            final Thread thread = new Thread(tarefa, "busca-lancamentos-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void encerra() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param cliente identifica quem busca, para substituir a busca anterior; <code>null</code> não substitui
+     * @return resultado da busca; termina com {@link CancellationException} quando substituída por outra
+     * do mesmo cliente e com {@link RejectedExecutionException} quando a fila está cheia
+     */
+    public CompletableFuture<ResultadoVO> busca(String cliente, String itemBusca, ModoContagem modoContagem) {
+        final CompletableFuture<ResultadoVO> resultado = new CompletableFuture<>();
+        if (cliente != null) {
+            final CompletableFuture<ResultadoVO> anterior = emAndamento.put(cliente, resultado);
+            if (anterior != null) {
+                anterior.cancel(false);
+            }
+            resultado.whenComplete((vo, erro) -> emAndamento.remove(cliente, resultado));
+        }
+        final Runnable tarefa = () -> {
+            // descartada entre sair da fila e começar a executar
+            if (resultado.isDone()) {
+                return;
+            }
+            try {
+                resultado.complete(lancamentoService.buscaAjax(itemBusca, modoContagem));
+            } catch (RuntimeException e) {
+                resultado.completeExceptionally(e);
+            }
+        };
+        // a busca descartada libera o seu lugar na fila, senão quem digita rápido enche a fila de buscas mortas
+        resultado.whenComplete((vo, erro) -> {
+            if (resultado.isCancelled()) {
+                executor.remove(tarefa);
+            }
+        });
+        try {
+            executor.execute(tarefa);
+        } catch (RejectedExecutionException e) {
+            resultado.completeExceptionally(e);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,226 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache das buscas feitas pelo índice enquanto o usuário digita. Cada entrada guarda a primeira
+ * página e, quando o resultado não passa de <code>maximo-ids</code> lançamentos, todos os ids
+ * encontrados. Uma busca mais específica que outra já guardada ("ali" depois de "al") é resolvida
+ * filtrando esses ids em memória, e os lançamentos da página que já estavam carregados não são
+ * lidos de novo. As entradas menos usadas recentemente saem primeiro.
+ * <p>
+ * As entradas valem para uma versão de {@link VersaoLancamentos}: a primeira busca depois de uma
+ * gravação confirmada esvazia o cache. Como a versão só é incrementada depois de o índice ser
+ * atualizado, um resultado calculado durante uma gravação nunca é servido como atual.
+ */
+@Component
+public class CacheBuscaPrefixo {
+
+    private final IndiceBuscaLancamento indiceBusca;
+    private final VersaoLancamentos versaoLancamentos;
+
+    private final int tamanhoMaximo;
+    private final int maximoIds;
+
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Versão dos lançamentos em que as entradas foram calculadas.
+     */
+    private long versao;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder refinamentos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder expulsoes = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    @Autowired
+    public CacheBuscaPrefixo(IndiceBuscaLancamento indiceBusca, VersaoLancamentos versaoLancamentos,
+                             @Value("${lancamento.cache-busca.tamanho-maximo:200}") int tamanhoMaximo,
+                             @Value("${lancamento.cache-busca.maximo-ids:5000}") int maximoIds) {
+        this.indiceBusca = indiceBusca;
+        this.versaoLancamentos = versaoLancamentos;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.maximoIds = maximoIds;
+    }
+
+    /**
+     * @param consulta texto digitado na busca
+     * @param limite tamanho da página
+     * @param carga carrega os lançamentos da página, na ordem dos ids
+     * @return página e total de lançamentos encontrados
+     */
+    public ResultadoBusca obtem(String consulta, int limite, Function<List<Long>, List<Lancamento>> carga) {
+        final List<String> termos = IndiceBuscaLancamento.tokeniza(consulta);
+        final String chave = String.join(" ", termos);
+        final long versaoInicial = versaoLancamentos.getVersao();
+        final Entrada ampla;
+        synchronized (this) {
+            atualizaVersao(versaoInicial);
+            final Entrada entrada = entradas.get(chave);
+            if (entrada != null && entrada.limite >= limite) {
+                acertos.increment();
+                return entrada.resultado(limite);
+            }
+            ampla = maisEspecificaQueContem(termos);
+        }
+
+        final List<Long> ids;
+        if (ampla != null) {
+            refinamentos.increment();
+            ids = indiceBusca.refina(ampla.ids, termos);
+        } else {
+            falhas.increment();
+            ids = indiceBusca.ordenados(termos, maximoIds);
+        }
+        final List<Long> idsPagina;
+        final long total;
+        if (ids != null) {
+            idsPagina = ids.subList(0, Math.min(limite, ids.size()));
+            total = ids.size();
+        } else {
+            final IndiceBuscaLancamento.PaginaIndice pagina = indiceBusca.pesquisa(consulta, limite);
+            idsPagina = pagina.getIds();
+            total = pagina.getTotal();
+        }
+        final Entrada entrada = new Entrada(termos, ids, carrega(idsPagina, ampla, carga), total, limite);
+
+        synchronized (this) {
+            if (versaoInicial == versaoLancamentos.getVersao()) {
+                atualizaVersao(versaoInicial);
+                entradas.put(chave, entrada);
+                expulsaExcedentes();
+            }
+        }
+        return entrada.resultado(limite);
+    }
+
+    private void atualizaVersao(long versaoAtual) {
+        if (versao != versaoAtual) {
+            versao = versaoAtual;
+            invalidacoes.add(entradas.size());
+            entradas.clear();
+        }
+    }
+
+    /**
+     * @return a entrada com todos os ids e o menor resultado entre as buscas que contêm a consulta
+     */
+    private Entrada maisEspecificaQueContem(List<String> termos) {
+        Entrada escolhida = null;
+        for (Entrada entrada : entradas.values()) {
+            if (entrada.ids != null && entrada.contem(termos)
+                    && (escolhida == null || entrada.ids.size() < escolhida.ids.size())) {
+                escolhida = entrada;
+            }
+        }
+        return escolhida;
+    }
+
+    /**
+     * Reaproveita os lançamentos já carregados pela busca mais ampla e carrega só os que faltam.
+     */
+    private static List<Lancamento> carrega(List<Long> ids, Entrada ampla, Function<List<Long>, List<Lancamento>> carga) {
+        final Map<Long, Lancamento> porId = new HashMap<>(ids.size() * 2);
+        if (ampla != null) {
+            ampla.pagina.forEach(l -> porId.put(l.getId(), l));
+        }
+        final List<Long> ausentes = new ArrayList<>(ids);
+        ausentes.removeAll(porId.keySet());
+        if (!ausentes.isEmpty()) {
+            carga.apply(ausentes).forEach(l -> porId.put(l.getId(), l));
+        }
+        final List<Lancamento> lancamentos = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            final Lancamento lancamento = porId.get(id);
+            if (lancamento != null) {
+                lancamentos.add(lancamento);
+            }
+        }
+        return Collections.unmodifiableList(lancamentos);
+    }
+
+    private void expulsaExcedentes() {
+        final Iterator<String> menosUsadas = entradas.keySet().iterator();
+        while (entradas.size() > tamanhoMaximo) {
+            menosUsadas.next();
+            menosUsadas.remove();
+            expulsoes.increment();
+        }
+    }
+
+    public synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getRefinamentos() {
+        return refinamentos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public long getExpulsoes() {
+        return expulsoes.sum();
+    }
+
+    public long getInvalidacoes() {
+        return invalidacoes.sum();
+    }
+
+    private static class Entrada {
+        private final List<String> termos;
+        /**
+         * Todos os ids encontrados, ou <code>null</code> quando passam do máximo guardado.
+         */
+        private final List<Long> ids;
+        private final List<Lancamento> pagina;
+        private final long total;
+        private final int limite;
+
+        Entrada(List<String> termos, List<Long> ids, List<Lancamento> pagina, long total, int limite) {
+            this.termos = termos;
+            this.ids = ids;
+            this.pagina = pagina;
+            this.total = total;
+            this.limite = limite;
+        }
+
+        /**
+         * @return <code>true</code> quando todo lançamento encontrado pela consulta também foi encontrado
+         * por esta entrada: cada termo desta entrada é prefixo de algum termo da consulta
+         */
+        boolean contem(List<String> termosConsulta) {
+            for (String termo : termos) {
+                boolean encontrado = false;
+                for (String termoConsulta : termosConsulta) {
+                    if (termoConsulta.startsWith(termo)) {
+                        encontrado = true;
+                        break;
+                    }
+                }
+                if (!encontrado) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ResultadoBusca resultado(int limite) {
+            return new ResultadoBusca(pagina.subList(0, Math.min(limite, pagina.size())), total, true);
+        }
+    }
+}
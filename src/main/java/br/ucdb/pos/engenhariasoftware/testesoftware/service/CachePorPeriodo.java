@@ -0,0 +1,160 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Datas.inicioDoDia;
+
+/**
+ * Cache de resultados calculados para um intervalo de datas, limitado em quantidade de entradas
+ * (as menos usadas recentemente saem primeiro) e em tempo de validade.
+ * A invalidação é feita por dia: só saem as entradas cujo intervalo contém o dia alterado.
+ * @param <V> tipo do resultado guardado
+ */
+public class CachePorPeriodo<V> {
+
+    private final int tamanhoMaximo;
+    private final long validadeMillis;
+    private final LongSupplier relogio;
+
+    private final LinkedHashMap<Periodo, Entrada<V>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Incrementada a cada invalidação; um resultado calculado enquanto houve invalidação
+     * pode estar desatualizado e não é guardado.
+     */
+    private long geracao;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder expulsoes = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    public CachePorPeriodo(int tamanhoMaximo, long validadeMillis) {
+        this(tamanhoMaximo, validadeMillis, System::currentTimeMillis);
+    }
+
+    CachePorPeriodo(int tamanhoMaximo, long validadeMillis, LongSupplier relogio) {
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.validadeMillis = validadeMillis;
+        this.relogio = relogio;
+    }
+
+    /**
+     * @param dataInicial início do intervalo
+     * @param dataFinal fim do intervalo
+     * @param calculo calcula o resultado quando ele não está no cache
+     * @return resultado do intervalo
+     */
+    public V obtem(Date dataInicial, Date dataFinal, Supplier<V> calculo) {
+        final Periodo periodo = new Periodo(dataInicial, dataFinal);
+        final long geracaoInicial;
+        synchronized (this) {
+            final Entrada<V> entrada = entradas.get(periodo);
+            if (entrada != null) {
+                if (entrada.expiraEm > relogio.getAsLong()) {
+                    acertos.increment();
+                    return entrada.valor;
+                }
+                entradas.remove(periodo);
+                expulsoes.increment();
+            }
+            geracaoInicial = geracao;
+        }
+        falhas.increment();
+        final V valor = calculo.get();
+        synchronized (this) {
+            if (geracao == geracaoInicial) {
+                entradas.put(periodo, new Entrada<>(valor, relogio.getAsLong() + validadeMillis));
+                expulsaExcedentes();
+            }
+        }
+        return valor;
+    }
+
+    private void expulsaExcedentes() {
+        final Iterator<Periodo> menosUsados = entradas.keySet().iterator();
+        while (entradas.size() > tamanhoMaximo) {
+            menosUsados.next();
+            menosUsados.remove();
+            expulsoes.increment();
+        }
+    }
+
+    /**
+     * Remove as entradas cujo intervalo contém o dia informado.
+     * @param data qualquer instante do dia alterado
+     */
+    public synchronized void invalida(Date data) {
+        geracao++;
+        final long dia = inicioDoDia(data).getTime();
+        final Iterator<Periodo> periodos = entradas.keySet().iterator();
+        while (periodos.hasNext()) {
+            if (periodos.next().contem(dia)) {
+                periodos.remove();
+                invalidacoes.increment();
+            }
+        }
+    }
+
+    public synchronized void limpa() {
+        geracao++;
+        invalidacoes.add(entradas.size());
+        entradas.clear();
+    }
+
+    public synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public long getExpulsoes() {
+        return expulsoes.sum();
+    }
+
+    public long getInvalidacoes() {
+        return invalidacoes.sum();
+    }
+
+    @EqualsAndHashCode(of = {"dataInicial", "dataFinal"})
+    private static class Periodo {
+        private final long dataInicial;
+        private final long dataFinal;
+        private final long primeiroDia;
+        private final long ultimoDia;
+
+        Periodo(Date dataInicial, Date dataFinal) {
+            this.dataInicial = dataInicial.getTime();
+            this.dataFinal = dataFinal.getTime();
+            this.primeiroDia = inicioDoDia(dataInicial).getTime();
+            this.ultimoDia = inicioDoDia(dataFinal).getTime();
+        }
+
+        boolean contem(long dia) {
+            return primeiroDia <= dia && dia <= ultimoDia;
+        }
+    }
+
+    private static class Entrada<V> {
+        private final V valor;
+        private final long expiraEm;
+
+        Entrada(V valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches dos totais do dashboard por intervalo de datas. Depois de cada gravação confirmada,
+ * saem apenas as entradas cujo intervalo contém o dia do lançamento antes ou depois da alteração.
+ */
+@Component
+public class CacheTotaisDashboard {
+
+    @Getter
+    private final CachePorPeriodo<List<TotalLancamentoVO>> totaisPorPeriodo;
+
+    @Getter
+    private final CachePorPeriodo<List<TotalLancamentoCategoriaVO>> totaisPorCategoria;
+
+    public CacheTotaisDashboard(@Value("${lancamento.cache-totais.tamanho-maximo:500}") int tamanhoMaximo,
+                                @Value("${lancamento.cache-totais.validade-segundos:300}") long validadeSegundos) {
+        final long validadeMillis = TimeUnit.SECONDS.toMillis(validadeSegundos);
+        this.totaisPorPeriodo = new CachePorPeriodo<>(tamanhoMaximo, validadeMillis);
+        this.totaisPorCategoria = new CachePorPeriodo<>(tamanhoMaximo, validadeMillis);
+    }
+
+    @Order(VersaoLancamentos.ANTES_DO_INCREMENTO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void invalida(LancamentosAlteradosEvent evento) {
+        for (AlteracaoLancamento alteracao : evento.getAlteracoes()) {
+            invalida(alteracao.getAnterior());
+            invalida(alteracao.getAtual());
+        }
+    }
+
+    private void invalida(Lancamento lancamento) {
+        if (lancamento != null && lancamento.getDataLancamento() != null) {
+            totaisPorPeriodo.invalida(lancamento.getDataLancamento());
+            totaisPorCategoria.invalida(lancamento.getDataLancamento());
+        }
+    }
+}
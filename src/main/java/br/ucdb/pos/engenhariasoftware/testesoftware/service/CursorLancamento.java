@@ -0,0 +1,63 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Posição de um lançamento na ordenação (dataLancamento, id) usada na paginação por cursor.
+ * A página seguinte começa no primeiro lançamento depois dessa posição, sem precisar
+ * descartar as linhas das páginas anteriores como acontece com o deslocamento.
+ */
+@EqualsAndHashCode
+public class CursorLancamento {
+
+    private static final char SEPARADOR = '_';
+    private static final int BASE = 36;
+
+    @Getter
+    private final Date dataLancamento;
+
+    @Getter
+    private final long id;
+
+    public CursorLancamento(Date dataLancamento, long id) {
+        this.dataLancamento = dataLancamento;
+        this.id = id;
+    }
+
+    public static CursorLancamento de(Lancamento lancamento) {
+        return new CursorLancamento(lancamento.getDataLancamento(), lancamento.getId());
+    }
+
+    /**
+     * Representação textual usada no parâmetro <code>after</code> da listagem
+     * @return cursor codificado
+     */
+    public String codifica() {
+        return Long.toString(dataLancamento.getTime(), BASE) + SEPARADOR + Long.toString(id, BASE);
+    }
+
+    /**
+     * @param cursor valor recebido no parâmetro <code>after</code>
+     * @return o cursor decodificado ou <code>null</code> se o valor for inválido
+     */
+    public static CursorLancamento decodifica(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        int separador = cursor.indexOf(SEPARADOR);
+        if (separador < 1 || separador == cursor.length() - 1) {
+            return null;
+        }
+        try {
+            long data = Long.parseLong(cursor.substring(0, separador), BASE);
+            long id = Long.parseLong(cursor.substring(separador + 1), BASE);
+            return new CursorLancamento(new Date(data), id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.PontoControleEscrita;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Escrita adiada das inclusões de lançamentos: cada inclusão é anexada a um diário em arquivo
+ * mapeado em memória e confirmada imediatamente; uma thread grava os registros pendentes na tabela
+ * de lançamentos em lotes, um lote por transação. O {@link PontoControleEscrita} é atualizado na
+ * mesma transação, e na inicialização os registros posteriores a ele são regravados antes que a
+ * aplicação atenda requisições.
+ * <p>
+ * Cada registro do diário tem o tamanho dos dados, o CRC32 da sequência e dos dados, a sequência e
+ * os dados; a leitura para no primeiro registro incompleto, corrompido ou fora de ordem. O diário
+ * sobrevive a uma queda do processo, já que as páginas mapeadas ficam com o sistema operacional.
+ * Os lançamentos incluídos só aparecem nas consultas depois da gravação do lote.
+ * Habilitada pela propriedade <code>lancamento.escrita-adiada.habilitada</code>.
+ */
+@Component
+public class DiarioEscritaLancamentos {
+
+    private static final int TAMANHO_LOTE = 500;
+
+    /**
+     * Tamanho, CRC e sequência que antecedem os dados de cada registro.
+     */
+    static final int CABECALHO = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final boolean habilitada;
+    private final Path arquivo;
+    private final int tamanhoBytes;
+    private final long intervaloMillis;
+
+    private FileChannel canal;
+    private MappedByteBuffer diario;
+    private ScheduledExecutorService gravador;
+
+    private final Queue<Registro> pendentes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Registros retirados da fila que ainda não foram gravados, porque o banco recusou a transação.
+     * Usado apenas por quem tem a trava de gravação.
+     */
+    private final List<Registro> lote = new ArrayList<>();
+    private final Object gravacao = new Object();
+
+    /**
+     * Última sequência anexada ao diário; alterada com a trava do próprio diário.
+     */
+    private long ultimaSequencia;
+    private volatile long sequenciaGravada;
+    private volatile boolean pronta;
+    private final AtomicLong rejeitados = new AtomicLong();
+
+    public DiarioEscritaLancamentos(@Value("${lancamento.escrita-adiada.habilitada:false}") boolean habilitada,
+                                    @Value("${lancamento.escrita-adiada.arquivo:db/diario-lancamentos.dat}") String arquivo,
+                                    @Value("${lancamento.escrita-adiada.tamanho-mb:16}") int tamanhoMb,
+                                    @Value("${lancamento.escrita-adiada.intervalo-millis:50}") long intervaloMillis) {
+        this.habilitada = habilitada;
+        this.arquivo = Paths.get(arquivo).toAbsolutePath();
+        this.tamanhoBytes = tamanhoMb * 1024 * 1024;
+        this.intervaloMillis = intervaloMillis;
+    }
+
+    @PostConstruct
+    public void abre() throws IOException {
+        if (!habilitada) {
+            return;
+        }
+        Files.createDirectories(arquivo.getParent());
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        diario = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoBytes);
+    }
+
+    /**
+     * Regrava os registros que não chegaram ao banco e inicia a gravação periódica. Executa antes
+     * da inicialização do servidor web e antes da carga das estruturas derivadas dos lançamentos.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void recupera() {
+        if (!habilitada || gravador != null) {
+            return;
+        }
+        final PontoControleEscrita pontoControle = entityManager.find(PontoControleEscrita.class, PontoControleEscrita.ID);
+        final long confirmada = pontoControle != null ? pontoControle.getSequencia() : 0;
+        final List<Registro> registros = le(diario, confirmada);
+        synchronized (this) {
+            ultimaSequencia = registros.isEmpty() ? confirmada : registros.get(registros.size() - 1).getSequencia();
+            sequenciaGravada = confirmada;
+            pendentes.addAll(registros);
+        }
+        while (gravaPendentes()) {
+            // regrava em lotes até esvaziar a fila
+        }
+        reinicia();
+        pronta = true;
+        gravador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            final Thread thread = new Thread(tarefa, "gravador-diario-lancamentos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        gravador.scheduleWithFixedDelay(this::grava, intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Grava os pendentes e fecha o diário antes que os demais componentes sejam destruídos;
+     * o que não puder ser gravado fica no diário para a próxima inicialização.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void encerra() throws IOException, InterruptedException {
+        if (gravador == null) {
+            return;
+        }
+        pronta = false;
+        gravador.shutdown();
+        gravador.awaitTermination(30, TimeUnit.SECONDS);
+        try {
+            while (gravaPendentes()) {
+                // grava o que foi anexado até aqui
+            }
+        } catch (RuntimeException e) {
+            // os registros não gravados continuam no diário
+        } finally {
+            diario.force();
+            canal.close();
+        }
+    }
+
+    /**
+     * @return <code>true</code> quando o lançamento foi anexado ao diário; <code>false</code> quando a
+     * escrita adiada está desligada, o diário está cheio ou o lançamento está incompleto, casos em que
+     * ele deve ser gravado diretamente
+     */
+    public boolean registra(Lancamento lancamento) {
+        if (!pronta || lancamento.getDescricao() == null || lancamento.getValor() == null
+                || lancamento.getDataLancamento() == null || lancamento.getTipoLancamento() == null) {
+            return false;
+        }
+        final byte[] dados = codifica(lancamento);
+        synchronized (this) {
+            if (diario.remaining() < CABECALHO + dados.length + Integer.BYTES) {
+                return false;
+            }
+            final long sequencia = ++ultimaSequencia;
+            anexa(diario, sequencia, dados);
+            pendentes.add(new Registro(sequencia, AlteracaoLancamento.copia(lancamento)));
+        }
+        return true;
+    }
+
+    public int getPendentes() {
+        return pendentes.size() + lote.size();
+    }
+
+    public long getRejeitados() {
+        return rejeitados.get();
+    }
+
+    private void grava() {
+        try {
+            gravaPendentes();
+        } catch (RuntimeException e) {
+            // o lote continua pendente e é regravado no próximo ciclo
+        }
+    }
+
+    /**
+     * @return <code>true</code> quando um lote foi gravado e pode haver outros na fila
+     */
+    private boolean gravaPendentes() {
+        synchronized (gravacao) {
+            Registro registro;
+            while (lote.size() < TAMANHO_LOTE && (registro = pendentes.poll()) != null) {
+                lote.add(registro);
+            }
+            if (lote.isEmpty()) {
+                return false;
+            }
+            diario.force();
+            final TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+            try {
+                transacao.execute(status -> insere(lote));
+                sequenciaGravada = lote.get(lote.size() - 1).getSequencia();
+                lote.clear();
+            } catch (RuntimeException e) {
+                for (Iterator<Registro> iterador = lote.iterator(); iterador.hasNext(); ) {
+                    final Registro pendente = iterador.next();
+                    try {
+                        transacao.execute(status -> insere(Collections.singletonList(pendente)));
+                    } catch (RuntimeException erro) {
+                        if (!recusado(erro)) {
+                            throw erro;
+                        }
+                        // o lançamento não passa nas restrições do banco: é descartado
+                        transacao.execute(status -> atualizaPontoControle(pendente.getSequencia()));
+                        rejeitados.incrementAndGet();
+                    }
+                    sequenciaGravada = pendente.getSequencia();
+                    iterador.remove();
+                }
+            }
+        }
+        reinicia();
+        return true;
+    }
+
+    private Void insere(List<Registro> registros) {
+        final List<AlteracaoLancamento> alteracoes = new ArrayList<>(registros.size());
+        for (Registro registro : registros) {
+            // uma cópia nova a cada tentativa, para não reaproveitar o id de uma transação desfeita
+            final Lancamento lancamento = AlteracaoLancamento.copia(registro.getLancamento());
+            entityManager.persist(lancamento);
+            alteracoes.add(new AlteracaoLancamento(null, lancamento));
+        }
+        atualizaPontoControle(registros.get(registros.size() - 1).getSequencia());
+        entityManager.flush();
+        entityManager.clear();
+        eventPublisher.publishEvent(new LancamentosAlteradosEvent(alteracoes));
+        return null;
+    }
+
+    private Void atualizaPontoControle(long sequencia) {
+        PontoControleEscrita pontoControle = entityManager.find(PontoControleEscrita.class, PontoControleEscrita.ID);
+        if (pontoControle == null) {
+            pontoControle = new PontoControleEscrita();
+            entityManager.persist(pontoControle);
+        }
+        pontoControle.setSequencia(sequencia);
+        return null;
+    }
+
+    /**
+     * Volta ao início do diário quando tudo o que foi anexado já está no banco.
+     */
+    private synchronized void reinicia() {
+        if (ultimaSequencia == sequenciaGravada && diario.position() > 0) {
+            diario.putInt(0, 0);
+            diario.position(0);
+        }
+    }
+
+    /**
+     * @return <code>true</code> quando o banco recusou o próprio lançamento, e não a transação
+     */
+    static boolean recusado(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof javax.validation.ConstraintViolationException
+                    || causa instanceof SQLIntegrityConstraintViolationException
+                    || causa instanceof SQLDataException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Anexa um registro na posição atual. O tamanho é escrito por último, de modo que um registro
+     * interrompido no meio é lido como o fim do diário; o inteiro seguinte é zerado pelo mesmo motivo.
+     */
+    static void anexa(ByteBuffer diario, long sequencia, byte[] dados) {
+        final int inicio = diario.position();
+        diario.position(inicio + CABECALHO);
+        diario.put(dados);
+        if (diario.remaining() >= Integer.BYTES) {
+            diario.putInt(diario.position(), 0);
+        }
+        diario.putLong(inicio + Integer.BYTES * 2, sequencia);
+        diario.putInt(inicio + Integer.BYTES, crc(sequencia, dados));
+        diario.putInt(inicio, dados.length);
+    }
+
+    /**
+     * @param confirmada última sequência já gravada no banco
+     * @return registros do diário com sequência posterior à confirmada, em ordem
+     */
+    static List<Registro> le(ByteBuffer diario, long confirmada) {
+        final ByteBuffer leitura = diario.duplicate();
+        leitura.position(0);
+        final List<Registro> registros = new ArrayList<>();
+        long anterior = Long.MIN_VALUE;
+        while (leitura.remaining() >= CABECALHO) {
+            final int inicio = leitura.position();
+            final int tamanho = leitura.getInt(inicio);
+            if (tamanho <= 0 || tamanho > leitura.remaining() - CABECALHO) {
+                break;
+            }
+            final int crc = leitura.getInt(inicio + Integer.BYTES);
+            final long sequencia = leitura.getLong(inicio + Integer.BYTES * 2);
+            // registros antigos que sobraram depois de voltar ao início têm sequências menores
+            if (sequencia <= anterior) {
+                break;
+            }
+            final byte[] dados = new byte[tamanho];
+            leitura.position(inicio + CABECALHO);
+            leitura.get(dados);
+            if (crc(sequencia, dados) != crc) {
+                break;
+            }
+            anterior = sequencia;
+            if (sequencia > confirmada) {
+                registros.add(new Registro(sequencia, decodifica(dados)));
+            }
+        }
+        return registros;
+    }
+
+    private static int crc(long sequencia, byte[] dados) {
+        final CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequencia).array());
+        crc.update(dados);
+        return (int) crc.getValue();
+    }
+
+    static byte[] codifica(Lancamento lancamento) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            saida.writeLong(lancamento.getDataLancamento().getTime());
+            saida.writeLong(CentavosConverter.centavos(lancamento.getValor()));
+            saida.writeByte(lancamento.getTipoLancamento().ordinal());
+            saida.writeByte(lancamento.getCategoria() != null ? lancamento.getCategoria().ordinal() : -1);
+            saida.writeUTF(lancamento.getDescricao());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Lancamento decodifica(byte[] dados) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(dados))) {
+            final Lancamento lancamento = new Lancamento();
+            lancamento.setDataLancamento(new Date(entrada.readLong()));
+            lancamento.setValor(CentavosConverter.valor(entrada.readLong()));
+            lancamento.setTipoLancamento(TIPOS[entrada.readByte()]);
+            final byte categoria = entrada.readByte();
+            lancamento.setCategoria(categoria >= 0 ? CATEGORIAS[categoria] : null);
+            lancamento.setDescricao(entrada.readUTF());
+            return lancamento;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static class Registro {
+
+        @Getter
+        private final long sequencia;
+
+        @Getter
+        private final Lancamento lancamento;
+
+        Registro(long sequencia, Lancamento lancamento) {
+            this.sequencia = sequencia;
+            this.lancamento = lancamento;
+        }
+    }
+}
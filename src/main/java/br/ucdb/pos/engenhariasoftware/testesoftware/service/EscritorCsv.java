@@ -0,0 +1,72 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
+
+/**
+ * CSV separado por ponto e vírgula, com vírgula decimal, como o Excel em português espera.
+ */
+class EscritorCsv implements EscritorExportacao {
+
+    private static final char SEPARADOR = ';';
+
+    private final Writer saida;
+    private final DateFormat formatoData = new SimpleDateFormat(DD_MM_YYYY);
+
+    EscritorCsv(Writer saida) {
+        this.saida = saida;
+    }
+
+    @Override
+    public void inicio() throws IOException {
+        saida.write("id;data;descricao;valor;tipo;categoria\r\n");
+    }
+
+    @Override
+    public void escreve(long id, Date dataLancamento, String descricao, BigDecimal valor,
+                        TipoLancamento tipo, Categoria categoria) throws IOException {
+        saida.write(Long.toString(id));
+        saida.write(SEPARADOR);
+        if (dataLancamento != null) {
+            saida.write(formatoData.format(dataLancamento));
+        }
+        saida.write(SEPARADOR);
+        campo(descricao);
+        saida.write(SEPARADOR);
+        if (valor != null) {
+            saida.write(valor.toPlainString().replace('.', ','));
+        }
+        saida.write(SEPARADOR);
+        campo(tipo != null ? tipo.getTipo() : null);
+        saida.write(SEPARADOR);
+        campo(categoria != null ? categoria.getNome() : null);
+        saida.write("\r\n");
+    }
+
+    private void campo(String texto) throws IOException {
+        if (texto == null) {
+            return;
+        }
+        if (texto.indexOf(SEPARADOR) < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            saida.write(texto);
+            return;
+        }
+        saida.write('"');
+        saida.write(texto.replace("\"", "\"\""));
+        saida.write('"');
+    }
+
+    @Override
+    public void fim() throws IOException {
+        saida.flush();
+    }
+}
@@ -0,0 +1,21 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Escreve os lançamentos exportados um a um, sem acumulá-los em memória.
+ */
+interface EscritorExportacao {
+
+    void inicio() throws IOException;
+
+    void escreve(long id, Date dataLancamento, String descricao, BigDecimal valor,
+                 TipoLancamento tipo, Categoria categoria) throws IOException;
+
+    void fim() throws IOException;
+}
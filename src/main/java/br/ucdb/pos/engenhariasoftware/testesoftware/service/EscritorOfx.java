@@ -0,0 +1,107 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Extrato OFX 2 (XML). Entradas viram créditos e saídas viram débitos com valor negativo;
+ * o saldo do rodapé é acumulado durante a escrita.
+ */
+class EscritorOfx implements EscritorExportacao {
+
+    private static final int TAMANHO_NOME = 32;
+
+    private final Writer saida;
+    private final Date dataInicial;
+    private final Date dataFinal;
+    private final DateFormat formatoData = new SimpleDateFormat("yyyyMMdd");
+
+    private BigDecimal saldo = BigDecimal.ZERO;
+
+    EscritorOfx(Writer saida, Date dataInicial, Date dataFinal) {
+        this.saida = saida;
+        this.dataInicial = dataInicial;
+        this.dataFinal = dataFinal;
+    }
+
+    @Override
+    public void inicio() throws IOException {
+        final String agora = formatoData.format(new Date());
+        saida.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+        saida.write("<?OFX OFXHEADER=\"200\" VERSION=\"211\" SECURITY=\"NONE\" OLDFILEUID=\"NONE\" NEWFILEUID=\"NONE\"?>\n");
+        saida.write("<OFX>\n<SIGNONMSGSRSV1><SONRS>");
+        status();
+        saida.write("<DTSERVER>" + agora + "</DTSERVER><LANGUAGE>POR</LANGUAGE></SONRS></SIGNONMSGSRSV1>\n");
+        saida.write("<BANKMSGSRSV1><STMTTRNRS><TRNUID>0</TRNUID>");
+        status();
+        saida.write("<STMTRS><CURDEF>BRL</CURDEF>\n");
+        saida.write("<BANKACCTFROM><BANKID>0</BANKID><ACCTID>0</ACCTID><ACCTTYPE>CHECKING</ACCTTYPE></BANKACCTFROM>\n");
+        saida.write("<BANKTRANLIST><DTSTART>" + formata(dataInicial, agora) + "</DTSTART><DTEND>"
+                + formata(dataFinal, agora) + "</DTEND>\n");
+    }
+
+    private void status() throws IOException {
+        saida.write("<STATUS><CODE>0</CODE><SEVERITY>INFO</SEVERITY></STATUS>");
+    }
+
+    private String formata(Date data, String padrao) {
+        return data != null ? formatoData.format(data) : padrao;
+    }
+
+    @Override
+    public void escreve(long id, Date dataLancamento, String descricao, BigDecimal valor,
+                        TipoLancamento tipo, Categoria categoria) throws IOException {
+        final boolean entrada = tipo == TipoLancamento.ENTRADA;
+        final BigDecimal quantia = valor == null ? BigDecimal.ZERO : entrada ? valor : valor.negate();
+        saldo = saldo.add(quantia);
+
+        saida.write("<STMTTRN><TRNTYPE>");
+        saida.write(entrada ? "CREDIT" : "DEBIT");
+        saida.write("</TRNTYPE><DTPOSTED>");
+        saida.write(formata(dataLancamento, ""));
+        saida.write("</DTPOSTED><TRNAMT>");
+        saida.write(quantia.toPlainString());
+        saida.write("</TRNAMT><FITID>");
+        saida.write(Long.toString(id));
+        saida.write("</FITID>");
+        if (descricao != null) {
+            saida.write("<NAME>");
+            texto(descricao.length() > TAMANHO_NOME ? descricao.substring(0, TAMANHO_NOME) : descricao);
+            saida.write("</NAME>");
+        }
+        if (categoria != null) {
+            saida.write("<MEMO>");
+            texto(categoria.getNome());
+            saida.write("</MEMO>");
+        }
+        saida.write("</STMTTRN>\n");
+    }
+
+    private void texto(String texto) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            final char c = texto.charAt(i);
+            switch (c) {
+                case '&': saida.write("&amp;"); break;
+                case '<': saida.write("&lt;"); break;
+                case '>': saida.write("&gt;"); break;
+                default: saida.write(c);
+            }
+        }
+    }
+
+    @Override
+    public void fim() throws IOException {
+        final String agora = formatoData.format(new Date());
+        saida.write("</BANKTRANLIST>\n<LEDGERBAL><BALAMT>" + saldo.toPlainString() + "</BALAMT><DTASOF>"
+                + agora + "</DTASOF></LEDGERBAL>\n");
+        saida.write("</STMTRS></STMTTRNRS></BANKMSGSRSV1>\n</OFX>\n");
+        saida.flush();
+    }
+}
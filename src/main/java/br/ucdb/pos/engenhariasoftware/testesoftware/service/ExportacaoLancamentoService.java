@@ -0,0 +1,183 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.hibernate.Query;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Datas.inicioDoDia;
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Datas.inicioDoDiaSeguinte;
+
+/**
+ * Exporta os lançamentos numa sessão sem estado, em lotes lidos pela chave (dataLancamento, id):
+ * cada lote continua depois da última linha do anterior, como em <code>lancamento.maisRecentesApos</code>,
+ * usando o índice dessas colunas. Nenhuma entidade fica no contexto de persistência e só um lote
+ * de cada tabela fica em memória, já que o HSQLDB em processo ignora o fetch size e carrega o
+ * resultado inteiro de cada consulta. Os lançamentos arquivados são lidos da mesma forma e
+ * intercalados com os demais pela data e pelo id.
+ */
+@Service
+public class ExportacaoLancamentoService {
+
+    private static final String SELECAO = "select l.id, l.dataLancamento, l.descricao, l.valor, l.tipoLancamento, l.categoria";
+    private static final String APOS = " and l.dataLancamento >= :dataCursor and (l.dataLancamento > :dataCursor or l.id > :idCursor)";
+    private static final String ORDEM = " order by l.dataLancamento, l.id";
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${lancamento.exportacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    public void exporta(FiltroExportacao filtro, FormatoExportacao formato, Writer saida) throws IOException {
+        final StatelessSession sessao = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            final EscritorExportacao escritor = formato == FormatoExportacao.OFX ?
+                    escritorOfx(sessao, filtro, saida) : new EscritorCsv(saida);
+            final Lotes arquivados = new Lotes(sessao, "LancamentoArquivado", filtro);
+            final Lotes atuais = new Lotes(sessao, "Lancamento", filtro);
+            escritor.inicio();
+            boolean haArquivado = arquivados.proxima();
+            boolean haAtual = atuais.proxima();
+            while (haArquivado || haAtual) {
+                if (haArquivado && (!haAtual || antes(arquivados.linha, atuais.linha))) {
+                    escreve(escritor, arquivados.linha);
+                    haArquivado = arquivados.proxima();
+                } else {
+                    escreve(escritor, atuais.linha);
+                    haAtual = atuais.proxima();
+                }
+            }
+            escritor.fim();
+        } finally {
+            sessao.close();
+        }
+    }
+
+    private static void escreve(EscritorExportacao escritor, Object[] linha) throws IOException {
+        escritor.escreve((Long) linha[0], (Date) linha[1], (String) linha[2],
+                (BigDecimal) linha[3], (TipoLancamento) linha[4], (Categoria) linha[5]);
+    }
+
+    /**
+     * @return <code>true</code> quando a primeira linha vem antes da segunda na ordem da exportação
+     */
+    private static boolean antes(Object[] primeira, Object[] segunda) {
+        final int comparacao = ((Date) primeira[1]).compareTo((Date) segunda[1]);
+        return comparacao < 0 || comparacao == 0 && (Long) primeira[0] < (Long) segunda[0];
+    }
+
+    /**
+     * Percorre uma das tabelas, lendo o lote seguinte quando o atual termina.
+     */
+    private class Lotes {
+        private final StatelessSession sessao;
+        private final String entidade;
+        private final FiltroExportacao filtro;
+
+        private List<Object[]> lote = Collections.emptyList();
+        private int posicao;
+        private boolean ultimoLote;
+        private Object[] linha;
+
+        Lotes(StatelessSession sessao, String entidade, FiltroExportacao filtro) {
+            this.sessao = sessao;
+            this.entidade = entidade;
+            this.filtro = filtro;
+        }
+
+        /**
+         * @return <code>true</code> quando há outra linha, que passa a ser a {@link #linha} atual
+         */
+        @SuppressWarnings("unchecked")
+        boolean proxima() {
+            if (posicao == lote.size()) {
+                if (ultimoLote) {
+                    return false;
+                }
+                final Query query = consulta(sessao, SELECAO, entidade, filtro, linha != null ? APOS + ORDEM : ORDEM);
+                if (linha != null) {
+                    query.setParameter("dataCursor", linha[1]).setParameter("idCursor", linha[0]);
+                }
+                lote = query.setReadOnly(true).setMaxResults(tamanhoLote).list();
+                posicao = 0;
+                ultimoLote = lote.size() < tamanhoLote;
+                if (lote.isEmpty()) {
+                    return false;
+                }
+            }
+            linha = lote.get(posicao++);
+            return true;
+        }
+    }
+
+    /**
+     * O OFX informa o período do extrato antes das transações; sem datas no filtro,
+     * o período vem da menor e da maior data exportada, considerando também os arquivados.
+     */
+    private EscritorExportacao escritorOfx(StatelessSession sessao, FiltroExportacao filtro, Writer saida) {
+        Date dataInicial = filtro.getDataInicial();
+        Date dataFinal = filtro.getDataFinal();
+        if (dataInicial == null || dataFinal == null) {
+            final Object[] extremos = extremos(sessao, "Lancamento", filtro);
+            final Object[] extremosArquivados = extremos(sessao, "LancamentoArquivado", filtro);
+            dataInicial = dataInicial != null ? dataInicial : menor((Date) extremos[0], (Date) extremosArquivados[0]);
+            dataFinal = dataFinal != null ? dataFinal : maior((Date) extremos[1], (Date) extremosArquivados[1]);
+        }
+        return new EscritorOfx(saida, dataInicial, dataFinal);
+    }
+
+    private Object[] extremos(StatelessSession sessao, String entidade, FiltroExportacao filtro) {
+        return (Object[]) consulta(sessao, "select min(l.dataLancamento), max(l.dataLancamento)", entidade, filtro, "").uniqueResult();
+    }
+
+    private static Date menor(Date data, Date outra) {
+        return data == null || outra != null && outra.before(data) ? outra : data;
+    }
+
+    private static Date maior(Date data, Date outra) {
+        return data == null || outra != null && outra.after(data) ? outra : data;
+    }
+
+    private Query consulta(StatelessSession sessao, String selecao, String entidade, FiltroExportacao filtro, String ordem) {
+        final StringBuilder hql = new StringBuilder(selecao).append(" from ").append(entidade).append(" l where 1 = 1");
+        if (filtro.getDataInicial() != null) {
+            hql.append(" and l.dataLancamento >= :dataInicial");
+        }
+        if (filtro.getDataFinal() != null) {
+            hql.append(" and l.dataLancamento < :dataFinal");
+        }
+        if (filtro.getCategoria() != null) {
+            hql.append(" and l.categoria = :categoria");
+        }
+        if (filtro.getTipo() != null) {
+            hql.append(" and l.tipoLancamento = :tipoLancamento");
+        }
+        final Query query = sessao.createQuery(hql.append(ordem).toString());
+        if (filtro.getDataInicial() != null) {
+            query.setParameter("dataInicial", inicioDoDia(filtro.getDataInicial()));
+        }
+        if (filtro.getDataFinal() != null) {
+            query.setParameter("dataFinal", inicioDoDiaSeguinte(filtro.getDataFinal()));
+        }
+        if (filtro.getCategoria() != null) {
+            query.setParameter("categoria", filtro.getCategoria());
+        }
+        if (filtro.getTipo() != null) {
+            query.setParameter("tipoLancamento", filtro.getTipo());
+        }
+        return query;
+    }
+}
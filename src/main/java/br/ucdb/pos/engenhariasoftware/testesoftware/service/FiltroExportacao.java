@@ -0,0 +1,26 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Filtros opcionais da exportação; as datas são inclusivas e consideram o dia inteiro.
+ */
+public class FiltroExportacao {
+
+    @Getter @Setter
+    private Date dataInicial;
+
+    @Getter @Setter
+    private Date dataFinal;
+
+    @Getter @Setter
+    private Categoria categoria;
+
+    @Getter @Setter
+    private TipoLancamento tipo;
+}
@@ -0,0 +1,33 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import lombok.Getter;
+
+public enum FormatoExportacao {
+
+    CSV("text/csv", "csv"),
+    OFX("application/x-ofx", "ofx");
+
+    @Getter
+    private String contentType;
+
+    @Getter
+    private String extensao;
+
+    private FormatoExportacao(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    /**
+     * @param formato nome do formato, sem diferenciar maiúsculas e minúsculas
+     * @return formato correspondente ou <code>null</code> quando não existe
+     */
+    public static FormatoExportacao de(String formato) {
+        for (FormatoExportacao valor : values()) {
+            if (valor.name().equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        return null;
+    }
+}
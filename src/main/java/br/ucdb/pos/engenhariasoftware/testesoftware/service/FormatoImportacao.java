@@ -0,0 +1,21 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+public enum FormatoImportacao {
+
+    CSV,
+    OFX,
+    JSON;
+
+    /**
+     * @param formato nome do formato, sem diferenciar maiúsculas e minúsculas
+     * @return formato correspondente ou <code>null</code> quando não existe
+     */
+    public static FormatoImportacao de(String formato) {
+        for (FormatoImportacao valor : values()) {
+            if (valor.name().equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        return null;
+    }
+}
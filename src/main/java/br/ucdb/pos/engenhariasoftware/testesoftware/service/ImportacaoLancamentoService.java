@@ -0,0 +1,141 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importa lançamentos em massa. O arquivo é lido um registro por vez e os lançamentos válidos
+ * são gravados em lotes, cada lote em uma transação: as inclusões vão ao banco em lotes JDBC e o
+ * contexto de persistência é esvaziado a cada lote JDBC. Registros inválidos são informados no
+ * resultado sem interromper a importação.
+ */
+@Service
+public class ImportacaoLancamentoService {
+
+    static final int TAMANHO_LOTE = 1_000;
+    private static final int MAXIMO_ERROS = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanhoBatch;
+
+    public ResultadoImportacao importa(FormatoImportacao formato, Reader entrada) throws IOException {
+        final LeitorImportacao leitor = leitor(formato, entrada);
+        final ResultadoImportacao resultado = new ResultadoImportacao(MAXIMO_ERROS);
+        final List<LinhaImportacao> lote = new ArrayList<>(TAMANHO_LOTE);
+        LinhaImportacao linha;
+        while ((linha = leitor.proxima()) != null) {
+            final String erro = linha.getErro() != null ? linha.getErro() : valida(linha.getLancamento());
+            if (erro != null) {
+                resultado.rejeitado(linha.getNumero(), erro);
+                continue;
+            }
+            lote.add(linha);
+            if (lote.size() == TAMANHO_LOTE) {
+                grava(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            grava(lote, resultado);
+        }
+        return resultado;
+    }
+
+    private LeitorImportacao leitor(FormatoImportacao formato, Reader entrada) throws IOException {
+        switch (formato) {
+            case OFX:
+                return new LeitorOfxImportacao(entrada);
+            case JSON:
+                return new LeitorJsonImportacao(objectMapper, entrada);
+            default:
+                return new LeitorCsvImportacao(entrada);
+        }
+    }
+
+    private String valida(Lancamento lancamento) {
+        final Set<ConstraintViolation<Lancamento>> violacoes = validator.validate(lancamento);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (lancamento.getCategoria() == null) {
+            return "A categoria deve ser informada";
+        }
+        return null;
+    }
+
+    /**
+     * Grava o lote em uma transação; se o banco recusar o lote, as linhas são regravadas
+     * uma a uma para que apenas as recusadas fiquem de fora.
+     */
+    private void grava(List<LinhaImportacao> lote, ResultadoImportacao resultado) {
+        final TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        try {
+            transacao.execute(status -> insere(lote));
+            resultado.importados(lote.size());
+        } catch (RuntimeException e) {
+            for (LinhaImportacao linha : lote) {
+                try {
+                    transacao.execute(status -> insere(Collections.singletonList(linha)));
+                    resultado.importados(1);
+                } catch (RuntimeException erro) {
+                    resultado.rejeitado(linha.getNumero(), NestedExceptionUtils.getMostSpecificCause(erro).getMessage());
+                }
+            }
+        }
+    }
+
+    private Void insere(List<LinhaImportacao> linhas) {
+        final List<AlteracaoLancamento> alteracoes = new ArrayList<>(linhas.size());
+        int pendentes = 0;
+        for (LinhaImportacao linha : linhas) {
+            final Lancamento lancamento = linha.getLancamento();
+            // descarta o id atribuído numa tentativa anterior que foi desfeita
+            lancamento.setId(0);
+            entityManager.persist(lancamento);
+            alteracoes.add(new AlteracaoLancamento(null, lancamento));
+            if (++pendentes == tamanhoBatch) {
+                entityManager.flush();
+                entityManager.clear();
+                pendentes = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        eventPublisher.publishEvent(new LancamentosAlteradosEvent(alteracoes));
+        return null;
+    }
+}
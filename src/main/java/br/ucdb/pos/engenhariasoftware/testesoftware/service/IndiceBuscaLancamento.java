@@ -0,0 +1,354 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import lombok.Getter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.BR;
+
+/**
+ * Índice invertido em memória sobre a descrição, o tipo e a categoria dos lançamentos.
+ * Os termos são normalizados sem acentos e em caixa baixa, e cada termo da busca casa com
+ * os termos indexados que começam por ele. Os candidatos são selecionados sem acessar o banco.
+ */
+@Component
+public class IndiceBuscaLancamento {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TAMANHO_CARGA = 5_000;
+
+    private static final Comparator<Documento> ORDEM = Comparator
+            .comparingLong((Documento d) -> d.dataLancamento)
+            .thenComparingLong(d -> d.id);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> termos = new ConcurrentSkipListMap<>();
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+    private final NavigableSet<Documento> ordenados = new ConcurrentSkipListSet<>(ORDEM);
+
+    /**
+     * Lançamentos alterados por {@link #atualiza(LancamentosAlteradosEvent)} antes de a carga inicial
+     * terminar; a carga não os indexa de novo com o que leu antes da alteração. Acessado sincronizado.
+     */
+    private final Set<Long> alteradosDuranteCarga = new HashSet<>();
+
+    private volatile boolean pronto;
+
+    /**
+     * @return <code>true</code> depois que a carga inicial terminou
+     */
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carrega() {
+        carrega("lancamento.indexaveis");
+        carrega("lancamentoArquivado.indexaveis");
+        synchronized (this) {
+            alteradosDuranteCarga.clear();
+            pronto = true;
+        }
+    }
+
+    private void carrega(String consulta) {
+        long ultimoId = Long.MIN_VALUE;
+        List<Object[]> linhas;
+        do {
+            linhas = consultaIndexaveis(consulta, ultimoId);
+            synchronized (this) {
+                for (Object[] linha : linhas) {
+                    ultimoId = (Long) linha[0];
+                    if (alteradosDuranteCarga.contains(ultimoId)) {
+                        continue;
+                    }
+                    indexa(ultimoId, (String) linha[1], (Date) linha[2], (TipoLancamento) linha[3], (Categoria) linha[4]);
+                }
+            }
+        } while (linhas.size() == TAMANHO_CARGA);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> consultaIndexaveis(String consulta, long ultimoId) {
+        return entityManager.createNamedQuery(consulta)
+                .setParameter("id", ultimoId)
+                .setMaxResults(TAMANHO_CARGA)
+                .getResultList();
+    }
+
+    @Order(VersaoLancamentos.ANTES_DO_INCREMENTO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void atualiza(LancamentosAlteradosEvent evento) {
+        for (AlteracaoLancamento alteracao : evento.getAlteracoes()) {
+            if (!pronto) {
+                alteradosDuranteCarga.add(alteracao.getAtual() != null ?
+                        alteracao.getAtual().getId() : alteracao.getAnterior().getId());
+            }
+            if (alteracao.getAtual() != null) {
+                indexa(alteracao.getAtual());
+            } else {
+                remove(alteracao.getAnterior().getId());
+            }
+        }
+    }
+
+    public void indexa(Lancamento lancamento) {
+        indexa(lancamento.getId(), lancamento.getDescricao(), lancamento.getDataLancamento(),
+                lancamento.getTipoLancamento(), lancamento.getCategoria());
+    }
+
+    private synchronized void indexa(long id, String descricao, Date dataLancamento,
+                                     TipoLancamento tipo, Categoria categoria) {
+        remove(id);
+        final Set<String> termosDocumento = new HashSet<>(tokeniza(descricao));
+        if (tipo != null) {
+            termosDocumento.addAll(tokeniza(tipo.name()));
+            termosDocumento.addAll(tokeniza(tipo.getTipo()));
+        }
+        if (categoria != null) {
+            termosDocumento.addAll(tokeniza(categoria.name()));
+            termosDocumento.addAll(tokeniza(categoria.getNome()));
+        }
+        final Documento documento = new Documento(id, dataLancamento != null ? dataLancamento.getTime() : 0L,
+                termosDocumento.toArray(new String[termosDocumento.size()]));
+        for (String termo : documento.termos) {
+            termos.computeIfAbsent(termo, t -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        documentos.put(id, documento);
+        ordenados.add(documento);
+    }
+
+    public synchronized void remove(long id) {
+        final Documento documento = documentos.remove(id);
+        if (documento == null) {
+            return;
+        }
+        ordenados.remove(documento);
+        for (String termo : documento.termos) {
+            termos.computeIfPresent(termo, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Busca os lançamentos cujos termos começam por todos os termos da consulta,
+     * na ordem de (dataLancamento, id).
+     * @param consulta texto digitado na busca; sem termos, casa com todos os lançamentos
+     * @param limite número máximo de ids devolvidos
+     * @return ids dos lançamentos encontrados
+     */
+    public List<Long> busca(String consulta, int limite) {
+        return pesquisa(consulta, limite).getIds();
+    }
+
+    /**
+     * Seleciona a primeira página e conta os lançamentos encontrados no mesmo percurso do índice.
+     * @param consulta texto digitado na busca; sem termos, casa com todos os lançamentos
+     * @param limite número máximo de ids devolvidos
+     * @return ids da página e total de lançamentos encontrados
+     */
+    public PaginaIndice pesquisa(String consulta, int limite) {
+        final Set<Long> candidatos = candidatos(tokeniza(consulta));
+        if (candidatos == null) {
+            final List<Long> ids = new ArrayList<>(limite);
+            for (Documento documento : ordenados) {
+                if (ids.size() == limite) {
+                    break;
+                }
+                ids.add(documento.id);
+            }
+            return new PaginaIndice(ids, documentos.size());
+        }
+        return new PaginaIndice(primeiros(candidatos, limite), candidatos.size());
+    }
+
+    /**
+     * @param consulta texto digitado na busca
+     * @return quantidade de lançamentos que casam com a consulta
+     */
+    public int conta(String consulta) {
+        final Set<Long> candidatos = candidatos(tokeniza(consulta));
+        return candidatos == null ? documentos.size() : candidatos.size();
+    }
+
+    /**
+     * Todos os lançamentos que casam com os termos, na ordem de (dataLancamento, id).
+     * @param termosConsulta termos já normalizados por {@link #tokeniza(String)}
+     * @param maximo número máximo de lançamentos encontrados
+     * @return ids encontrados ou <code>null</code> quando há mais lançamentos que o máximo
+     */
+    List<Long> ordenados(List<String> termosConsulta, int maximo) {
+        final Set<Long> candidatos = candidatos(termosConsulta);
+        if (candidatos == null) {
+            if (documentos.size() > maximo) {
+                return null;
+            }
+            final List<Long> ids = new ArrayList<>(documentos.size());
+            for (Documento documento : ordenados) {
+                ids.add(documento.id);
+            }
+            return ids;
+        }
+        if (candidatos.size() > maximo) {
+            return null;
+        }
+        final List<Documento> encontrados = new ArrayList<>(candidatos.size());
+        for (Long id : candidatos) {
+            final Documento documento = documentos.get(id);
+            if (documento != null) {
+                encontrados.add(documento);
+            }
+        }
+        encontrados.sort(ORDEM);
+        final List<Long> ids = new ArrayList<>(encontrados.size());
+        for (Documento documento : encontrados) {
+            ids.add(documento.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Filtra o resultado de uma busca mais ampla pelos termos de uma busca mais específica, sem
+     * percorrer os termos do índice.
+     * @param ids resultado da busca mais ampla
+     * @param termosConsulta termos já normalizados por {@link #tokeniza(String)}
+     * @return ids que casam com todos os termos, na mesma ordem
+     */
+    List<Long> refina(List<Long> ids, List<String> termosConsulta) {
+        final List<Long> refinados = new ArrayList<>();
+        for (Long id : ids) {
+            final Documento documento = documentos.get(id);
+            if (documento != null && documento.casa(termosConsulta)) {
+                refinados.add(id);
+            }
+        }
+        return refinados;
+    }
+
+    /**
+     * @return ids que casam com todos os termos ou <code>null</code> quando não há termos
+     */
+    private Set<Long> candidatos(List<String> termosConsulta) {
+        if (termosConsulta.isEmpty()) {
+            return null;
+        }
+        Set<Long> resultado = null;
+        for (String termo : termosConsulta) {
+            final Set<Long> comPrefixo = new HashSet<>();
+            for (Set<Long> ids : termos.subMap(termo, true, termo + Character.MAX_VALUE, false).values()) {
+                comPrefixo.addAll(ids);
+            }
+            if (resultado == null) {
+                resultado = comPrefixo;
+            } else {
+                resultado.retainAll(comPrefixo);
+            }
+            if (resultado.isEmpty()) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    private List<Long> primeiros(Set<Long> candidatos, int limite) {
+        final PriorityQueue<Documento> maiores = new PriorityQueue<>(limite + 1, ORDEM.reversed());
+        for (Long id : candidatos) {
+            final Documento documento = documentos.get(id);
+            if (documento == null) {
+                continue;
+            }
+            maiores.add(documento);
+            if (maiores.size() > limite) {
+                maiores.poll();
+            }
+        }
+        final Long[] ids = new Long[maiores.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = maiores.poll().id;
+        }
+        return Arrays.asList(ids);
+    }
+
+    static String normaliza(String texto) {
+        final String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(BR);
+    }
+
+    static List<String> tokeniza(String texto) {
+        if (texto == null) {
+            return Collections.emptyList();
+        }
+        final List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(normaliza(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static class PaginaIndice {
+
+        @Getter
+        private final List<Long> ids;
+
+        @Getter
+        private final int total;
+
+        PaginaIndice(List<Long> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+
+    private static class Documento {
+        final long id;
+        final long dataLancamento;
+        final String[] termos;
+
+        Documento(long id, long dataLancamento, String[] termos) {
+            this.id = id;
+            this.dataLancamento = dataLancamento;
+            this.termos = termos;
+        }
+
+        /**
+         * @return <code>true</code> quando cada termo da consulta é prefixo de algum termo do documento
+         */
+        boolean casa(List<String> termosConsulta) {
+            for (String termoConsulta : termosConsulta) {
+                boolean encontrado = false;
+                for (String termo : termos) {
+                    if (termo.startsWith(termoConsulta)) {
+                        encontrado = true;
+                        break;
+                    }
+                }
+                if (!encontrado) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
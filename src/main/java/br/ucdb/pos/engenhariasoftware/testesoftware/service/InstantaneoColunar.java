@@ -0,0 +1,287 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cópia em memória dos campos usados pelos totais do dashboard, guardada por colunas em vetores
+ * primitivos: dia (dias desde 1970), valor em centavos e ordinais do tipo e da categoria.
+ * Os totais por período são somados num único percurso dos vetores, sem acessar o banco.
+ * Habilitada pela propriedade <code>lancamento.colunar.habilitado</code>.
+ */
+@Component
+public class InstantaneoColunar {
+
+    private static final int TAMANHO_CARGA = 5_000;
+    private static final int CAPACIDADE_INICIAL = 1_024;
+    private static final byte SEM_CATEGORIA = -1;
+
+    private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean habilitado;
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[CAPACIDADE_INICIAL];
+    private int[] dias = new int[CAPACIDADE_INICIAL];
+    private long[] centavos = new long[CAPACIDADE_INICIAL];
+    private byte[] tipos = new byte[CAPACIDADE_INICIAL];
+    private byte[] categorias = new byte[CAPACIDADE_INICIAL];
+    private int tamanho;
+
+    /**
+     * Posição de cada lançamento nos vetores.
+     */
+    private final Map<Long, Integer> posicoes = new HashMap<>();
+
+    /**
+     * Lançamentos alterados por {@link #atualiza(LancamentosAlteradosEvent)} antes de a carga inicial
+     * terminar. A carga não os grava: o lote pode ter sido lido antes da alteração, que já foi aplicada.
+     * Acessado com a trava de escrita.
+     */
+    private final Set<Long> alteradosDuranteCarga = new HashSet<>();
+
+    private volatile boolean pronto;
+
+    public InstantaneoColunar(@Value("${lancamento.colunar.habilitado:false}") boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * @return <code>true</code> quando habilitado e depois que a carga inicial terminou
+     */
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    public int getTamanho() {
+        trava.readLock().lock();
+        try {
+            return tamanho;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carrega() {
+        if (!habilitado) {
+            return;
+        }
+        carrega("lancamento.colunas");
+        carrega("lancamentoArquivado.colunas");
+        trava.writeLock().lock();
+        try {
+            alteradosDuranteCarga.clear();
+            pronto = true;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void carrega(String consulta) {
+        long ultimoId = Long.MIN_VALUE;
+        List<Object[]> linhas;
+        do {
+            linhas = consultaColunas(consulta, ultimoId);
+            trava.writeLock().lock();
+            try {
+                for (Object[] linha : linhas) {
+                    ultimoId = (Long) linha[0];
+                    if (alteradosDuranteCarga.contains(ultimoId)) {
+                        continue;
+                    }
+                    grava(ultimoId, (Date) linha[1], (BigDecimal) linha[2], (TipoLancamento) linha[3], (Categoria) linha[4]);
+                }
+            } finally {
+                trava.writeLock().unlock();
+            }
+        } while (linhas.size() == TAMANHO_CARGA);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> consultaColunas(String consulta, long ultimoId) {
+        return entityManager.createNamedQuery(consulta)
+                .setParameter("id", ultimoId)
+                .setMaxResults(TAMANHO_CARGA)
+                .getResultList();
+    }
+
+    @Order(VersaoLancamentos.ANTES_DO_INCREMENTO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void atualiza(LancamentosAlteradosEvent evento) {
+        if (!habilitado) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            for (AlteracaoLancamento alteracao : evento.getAlteracoes()) {
+                final Lancamento atual = alteracao.getAtual();
+                if (!pronto) {
+                    alteradosDuranteCarga.add(atual != null ? atual.getId() : alteracao.getAnterior().getId());
+                }
+                if (atual != null) {
+                    grava(atual.getId(), atual.getDataLancamento(), atual.getValor(), atual.getTipoLancamento(), atual.getCategoria());
+                } else {
+                    remove(alteracao.getAnterior().getId());
+                }
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inclui ou substitui um lançamento; deve ser chamado com a trava de escrita.
+     */
+    void grava(long id, Date dataLancamento, BigDecimal valor, TipoLancamento tipo, Categoria categoria) {
+        if (dataLancamento == null || valor == null || tipo == null) {
+            remove(id);
+            return;
+        }
+        Integer posicao = posicoes.get(id);
+        if (posicao == null) {
+            if (tamanho == ids.length) {
+                cresce();
+            }
+            posicao = tamanho++;
+            posicoes.put(id, posicao);
+        }
+        ids[posicao] = id;
+        dias[posicao] = dia(dataLancamento);
+        centavos[posicao] = CentavosConverter.centavos(valor);
+        tipos[posicao] = (byte) tipo.ordinal();
+        categorias[posicao] = categoria != null ? (byte) categoria.ordinal() : SEM_CATEGORIA;
+    }
+
+    /**
+     * Remove um lançamento levando o último para a posição liberada; deve ser chamado com a trava de escrita.
+     */
+    void remove(long id) {
+        final Integer posicao = posicoes.remove(id);
+        if (posicao == null) {
+            return;
+        }
+        final int ultimo = --tamanho;
+        if (posicao != ultimo) {
+            ids[posicao] = ids[ultimo];
+            dias[posicao] = dias[ultimo];
+            centavos[posicao] = centavos[ultimo];
+            tipos[posicao] = tipos[ultimo];
+            categorias[posicao] = categorias[ultimo];
+            posicoes.put(ids[posicao], posicao);
+        }
+    }
+
+    private void cresce() {
+        final int capacidade = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacidade);
+        dias = Arrays.copyOf(dias, capacidade);
+        centavos = Arrays.copyOf(centavos, capacidade);
+        tipos = Arrays.copyOf(tipos, capacidade);
+        categorias = Arrays.copyOf(categorias, capacidade);
+    }
+
+    /**
+     * Mesmo resultado de {@link TotalDiarioService#getTotalPorPeriodo(Date, Date)}: os dias das datas
+     * informadas entram no período.
+     */
+    public List<TotalLancamentoVO> getTotalPorPeriodo(Date dataInicial, Date dataFinal) {
+        final int primeiroDia = dia(dataInicial);
+        final int ultimoDia = dia(dataFinal);
+        final long[] somas = new long[TIPOS.length];
+        final int[] quantidades = new int[TIPOS.length];
+        trava.readLock().lock();
+        try {
+            final int[] dias = this.dias;
+            final long[] centavos = this.centavos;
+            final byte[] tipos = this.tipos;
+            for (int i = 0, n = tamanho; i < n; i++) {
+                final int dia = dias[i];
+                if (dia >= primeiroDia && dia <= ultimoDia) {
+                    somas[tipos[i]] += centavos[i];
+                    quantidades[tipos[i]]++;
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        final List<TotalLancamentoVO> totais = new ArrayList<>(TIPOS.length);
+        for (int t = 0; t < TIPOS.length; t++) {
+            if (quantidades[t] > 0) {
+                totais.add(new TotalLancamentoVO(somas[t], TIPOS[t]));
+            }
+        }
+        return totais;
+    }
+
+    /**
+     * Mesmo resultado de {@link TotalDiarioService#getTotalPorPeriodoPorCategoria(Date, Date)},
+     * ordenado por tipo e categoria; lançamentos sem categoria formam um grupo próprio.
+     */
+    public List<TotalLancamentoCategoriaVO> getTotalPorPeriodoPorCategoria(Date dataInicial, Date dataFinal) {
+        final int primeiroDia = dia(dataInicial);
+        final int ultimoDia = dia(dataFinal);
+        // uma posição por tipo e categoria, com a posição 0 de cada tipo para os lançamentos sem categoria
+        final int grupos = CATEGORIAS.length + 1;
+        final long[] somas = new long[TIPOS.length * grupos];
+        final int[] quantidades = new int[TIPOS.length * grupos];
+        trava.readLock().lock();
+        try {
+            final int[] dias = this.dias;
+            final long[] centavos = this.centavos;
+            final byte[] tipos = this.tipos;
+            final byte[] categorias = this.categorias;
+            for (int i = 0, n = tamanho; i < n; i++) {
+                final int dia = dias[i];
+                if (dia >= primeiroDia && dia <= ultimoDia) {
+                    final int grupo = tipos[i] * grupos + categorias[i] + 1;
+                    somas[grupo] += centavos[i];
+                    quantidades[grupo]++;
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        final List<TotalLancamentoCategoriaVO> totais = new ArrayList<>();
+        for (int t = 0; t < TIPOS.length; t++) {
+            for (int c = 0; c < grupos; c++) {
+                final int grupo = t * grupos + c;
+                if (quantidades[grupo] > 0) {
+                    totais.add(new TotalLancamentoCategoriaVO(somas[grupo], TIPOS[t], c == 0 ? null : CATEGORIAS[c - 1]));
+                }
+            }
+        }
+        return totais;
+    }
+
+    /**
+     * @return dias desde 01/01/1970 no fuso horário do sistema, como em {@link TotalDiarioService}
+     */
+    static int dia(Date data) {
+        return (int) Instant.ofEpochMilli(data.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
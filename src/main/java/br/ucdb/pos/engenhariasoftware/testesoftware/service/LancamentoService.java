@@ -5,26 +5,27 @@ import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.ResultadoVO;
 import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
 import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.LancamentoArquivado;
 import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.repository.DialetoHsqldb;
 import br.ucdb.pos.engenhariasoftware.testesoftware.repository.LancamentoRepository;
+import br.ucdb.pos.engenhariasoftware.testesoftware.util.FormatoData;
+import br.ucdb.pos.engenhariasoftware.testesoftware.util.FormatoNumerico;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
-import javax.persistence.TypedQuery;
-import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
 import javax.xml.transform.Result;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.DateFormat;
-import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
+import java.math.RoundingMode;
 import java.util.*;
 
-import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
-
 @Service
 public class LancamentoService {
 
@@ -36,15 +37,97 @@ public class LancamentoService {
 	@Autowired
 	private LancamentoRepository lancamentoRepository;
 
-	@Transactional
+	@Autowired
+	private IndiceBuscaLancamento indiceBusca;
+
+	@Autowired
+	private CacheBuscaPrefixo cacheBusca;
+
+	@Autowired
+	private TotalDiarioService totalDiarioService;
+
+	@Autowired
+	private CacheTotaisDashboard cacheTotais;
+
+	@Autowired
+	private InstantaneoColunar instantaneoColunar;
+
+	@Autowired
+	private AgregadorPorMes agregadorPorMes;
+
+	@Autowired
+	private DiarioEscritaLancamentos diarioEscrita;
+
+	@Autowired
+	private AgrupadorGravacoes agrupadorGravacoes;
+
+	@Autowired
+	private ArquivamentoLancamentoService arquivamentoService;
+
+	@Autowired
+	private Validator validator;
+
+	/**
+	 * Grava o lançamento. Com a escrita adiada habilitada, as inclusões são anexadas ao
+	 * {@link DiarioEscritaLancamentos} e gravadas no banco logo depois, em lote; o lançamento
+	 * devolvido ainda não tem id. As demais gravações passam pelo {@link AgrupadorGravacoes}, que
+	 * confirma numa só transação as gravações concorrentes.
+	 * @throws ConstraintViolationException quando o lançamento não é válido
+	 */
 	public Lancamento salvar(Lancamento lancamento){
 
-		return lancamentoRepository.save(lancamento);
+		final Set<ConstraintViolation<Lancamento>> violacoes = validator.validate(lancamento);
+		if(!violacoes.isEmpty()){
+			throw new ConstraintViolationException(violacoes);
+		}
+		if(lancamento.getId() == 0 && diarioEscrita.registra(lancamento)){
+			return lancamento;
+		}
+		final boolean novo = lancamento.getId() == 0;
+		return agrupadorGravacoes.executa(() -> {
+			if(novo){
+				// descarta o id atribuído numa tentativa anterior que foi desfeita
+				lancamento.setId(0);
+			}
+			// o estado anterior fica no contexto de persistência e é reaproveitado pelo merge do save,
+			// por isso é copiado antes de ser sobrescrito
+			Lancamento anterior = !novo ?
+					AlteracaoLancamento.copia(lancamentoRepository.findOne(lancamento.getId())) : null;
+			if(!novo && anterior == null){
+				final LancamentoArquivado arquivado = entityManager.find(LancamentoArquivado.class, lancamento.getId());
+				if(arquivado != null){
+					// sem isso o merge do save incluiria um lançamento novo, com outro id
+					anterior = arquivado.paraLancamento();
+					arquivado.atualiza(lancamento);
+					if(!lancamento.getDataLancamento().before(arquivamentoService.corteAtual())){
+						// a nova data é de um ano aberto: volta para a listagem, com o mesmo id
+						arquivamentoService.desarquiva(arquivado);
+						return new AlteracaoLancamento(anterior, lancamentoRepository.findOne(lancamento.getId()));
+					}
+					return new AlteracaoLancamento(anterior, lancamento);
+				}
+			}
+			Lancamento salvo = lancamentoRepository.save(lancamento);
+			return new AlteracaoLancamento(anterior, salvo);
+		}).getAtual();
 	}
 
-	@Transactional
+	/**
+	 * Remove o lançamento, procurando-o também entre os arquivados, que aparecem nas buscas.
+	 */
 	public void remover(long id){
-		lancamentoRepository.delete(id);
+		agrupadorGravacoes.executa(() -> {
+			Lancamento anterior = lancamentoRepository.findOne(id);
+			if(anterior == null){
+				final LancamentoArquivado arquivado = entityManager.find(LancamentoArquivado.class, id);
+				if(arquivado != null){
+					entityManager.remove(arquivado);
+					return new AlteracaoLancamento(arquivado.paraLancamento(), null);
+				}
+			}
+			lancamentoRepository.delete(id);
+			return new AlteracaoLancamento(anterior, null);
+		});
 	}
 
 	public List<Lancamento> buscaTodos(int pagina){
@@ -54,6 +137,39 @@ public class LancamentoService {
 				.setMaxResults(MAXIMO_LANCAMENTOS).getResultList();
 	}
 
+	/**
+	 * Paginação por cursor: busca a página que começa logo depois do cursor informado,
+	 * percorrendo o índice (dataLancamento, id) a partir dessa posição. O custo não depende
+	 * da profundidade da página, ao contrário do deslocamento usado em {@link #buscaTodos(int)}.
+	 * A dica {@link DialetoHsqldb#USA_INDICE_DA_ORDENACAO} impede o HSQLDB de trocar esse índice pelo do período.
+	 * @param cursor posição do último lançamento da página anterior; <code>null</code> para a primeira página
+	 * @return lançamentos da página
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Lancamento> buscaApos(CursorLancamento cursor){
+		if(cursor == null){
+			return buscaTodos(1);
+		}
+		return entityManager.createNamedQuery("lancamento.maisRecentesApos", Lancamento.class)
+				.setParameter("dataLancamento", cursor.getDataLancamento())
+				.setParameter("id", cursor.getId())
+				.setMaxResults(MAXIMO_LANCAMENTOS)
+				.unwrap(org.hibernate.Query.class)
+				.addQueryHint(DialetoHsqldb.USA_INDICE_DA_ORDENACAO)
+				.list();
+	}
+
+	/**
+	 * @param lancamentos página corrente
+	 * @return cursor da página seguinte ou <code>null</code> se a página corrente for a última
+	 */
+	public CursorLancamento proximoCursor(List<Lancamento> lancamentos){
+		if(lancamentos.size() < MAXIMO_LANCAMENTOS){
+			return null;
+		}
+		return CursorLancamento.de(lancamentos.get(lancamentos.size() - 1));
+	}
+
 	public int tamanhoPagina(){
 		return MAXIMO_LANCAMENTOS;
 	}
@@ -84,35 +200,104 @@ public class LancamentoService {
 
 	public long conta(String itemBusca){
 
-		String sql = "select count(*) from Lancamento l ";
-		if(StringUtils.hasText(itemBusca)){
-			String where = " where (upper(l.descricao) like upper( :itemBusca)) " +
-					"  or (upper(l.tipoLancamento) like upper( :itemBusca)) " +
-					" or (upper(l.categoria) like upper( :itemBusca))";
-			sql += where.replaceAll(":itemBusca", "'%"+itemBusca+"%'");
+		if(StringUtils.hasText(itemBusca) && indiceBusca.isPronto()){
+			return indiceBusca.conta(itemBusca);
+		}
+		if(!StringUtils.hasText(itemBusca)){
+			return entityManager.createNamedQuery("lancamento.conta", Long.class).getSingleResult();
 		}
-		TypedQuery<Long> query = entityManager.createQuery(sql, Long.class);
-		return query.getSingleResult();
+		return entityManager.createNamedQuery("lancamento.contaBusca", Long.class)
+				.setParameter("itemBusca", "%"+itemBusca+"%")
+				.getSingleResult();
 	}
 
 	public List<Lancamento> busca(String itemBusca){
+		if(indiceBusca.isPronto()){
+			return buscaPorIds(indiceBusca.busca(itemBusca, MAXIMO_LANCAMENTOS));
+		}
 		return entityManager.createNamedQuery("lancamento.busca", Lancamento.class)
 				.setParameter("itemBusca", "%"+itemBusca+"%")
 				.setMaxResults(MAXIMO_LANCAMENTOS)
 				.getResultList();
 	}
 
+	/**
+	 * Carrega os lançamentos selecionados pelo índice de busca, preservando a ordem dos ids.
+	 * Os ids que não estão na tabela de lançamentos são procurados entre os arquivados.
+	 * @param ids ids devolvidos pelo índice
+	 * @return lançamentos encontrados
+	 */
+	protected List<Lancamento> buscaPorIds(List<Long> ids){
+		if(ids.isEmpty()){
+			return new ArrayList<>();
+		}
+		final Map<Long, Lancamento> porId = new HashMap<>(ids.size() * 2);
+		lancamentoRepository.findAll(ids).forEach(l -> porId.put(l.getId(), l));
+		if(porId.size() < ids.size()){
+			final List<Long> ausentes = new ArrayList<>(ids);
+			ausentes.removeAll(porId.keySet());
+			entityManager.createNamedQuery("lancamentoArquivado.porIds", LancamentoArquivado.class)
+					.setParameter("ids", ausentes)
+					.getResultList()
+					.forEach(a -> porId.put(a.getId(), a.paraLancamento()));
+		}
+		final List<Lancamento> lancamentos = new ArrayList<>(ids.size());
+		for(Long id : ids){
+			Lancamento lancamento = porId.get(id);
+			if(lancamento != null){
+				lancamentos.add(lancamento);
+			}
+		}
+		return lancamentos;
+	}
+
+	/**
+	 * Busca a primeira página e o total de lançamentos em um só passo: pelo índice de busca, com o
+	 * resultado guardado no {@link CacheBuscaPrefixo} para as buscas seguintes enquanto o usuário digita,
+	 * ou, enquanto o índice é carregado, uma consulta que lê um registro além da página. A contagem
+	 * no banco só é feita quando o modo é {@link ModoContagem#EXATA} e a página veio cheia; com
+	 * {@link ModoContagem#NENHUMA} só a página é lida.
+	 * @param itemBusca texto digitado na busca
+	 * @param modoContagem como o total deve ser calculado
+	 * @return página e total de lançamentos encontrados
+	 */
+	public ResultadoBusca buscaComTotal(String itemBusca, ModoContagem modoContagem){
+		if(modoContagem == ModoContagem.NENHUMA){
+			return new ResultadoBusca(busca(itemBusca), ResultadoBusca.TOTAL_DESCONHECIDO, false);
+		}
+		if(indiceBusca.isPronto()){
+			return cacheBusca.obtem(itemBusca, MAXIMO_LANCAMENTOS, this::buscaPorIds);
+		}
+		final List<Lancamento> lancamentos = entityManager.createNamedQuery("lancamento.busca", Lancamento.class)
+				.setParameter("itemBusca", "%"+itemBusca+"%")
+				.setMaxResults(MAXIMO_LANCAMENTOS + 1)
+				.getResultList();
+		if(lancamentos.size() <= MAXIMO_LANCAMENTOS){
+			return new ResultadoBusca(lancamentos, lancamentos.size(), true);
+		}
+		final List<Lancamento> pagina = lancamentos.subList(0, MAXIMO_LANCAMENTOS);
+		if(modoContagem == ModoContagem.EXATA){
+			return new ResultadoBusca(pagina, conta(itemBusca), true);
+		}
+		return new ResultadoBusca(pagina, lancamentos.size(), false);
+	}
+
 	public ResultadoVO buscaAjax(String itemBusca){
-		final List<Lancamento> resultado = busca(itemBusca);
-		int tamanhoPagina = resultado.size();
-		long totalRegistros = conta(itemBusca);
-		return  getResultadoVO(resultado, tamanhoPagina, totalRegistros);
+		return buscaAjax(itemBusca, ModoContagem.EXATA);
+	}
+
+	public ResultadoVO buscaAjax(String itemBusca, ModoContagem modoContagem){
+		final ResultadoBusca resultado = buscaComTotal(itemBusca, modoContagem);
+		final List<Lancamento> lancamentos = resultado.getLancamentos();
+		return getResultadoVO(lancamentos, lancamentos.size(), resultado.getTotal(), resultado.isTotalExato());
 	}
 
 	protected ResultadoVO getResultadoVO(final List<Lancamento> resultado, int tamanhoPagina, long totalRegistros) {
+		return getResultadoVO(resultado, tamanhoPagina, totalRegistros, true);
+	}
+
+	protected ResultadoVO getResultadoVO(final List<Lancamento> resultado, int tamanhoPagina, long totalRegistros, boolean totalExato) {
 		List<LancamentoVO> lancamentos = new ArrayList<>(resultado.size());
-		DecimalFormat df = new DecimalFormat("#,###,##0.00");
-		DateFormat dateFormat = new SimpleDateFormat(DD_MM_YYYY);
 		resultado.stream().forEach(r -> {
 			String categoria = "";
 			if(r.getCategoria() != null){
@@ -121,8 +306,8 @@ public class LancamentoService {
 			lancamentos.add(
 					new LancamentoVO(r.getId(),
 							r.getDescricao(),
-							df.format(r.getValor()),
-							dateFormat.format(r.getDataLancamento()),
+							FormatoNumerico.VALOR.formata(r.getValor()),
+							FormatoData.formata(r.getDataLancamento()),
 							r.getTipoLancamento().getTipo(),
 							categoria)
 
@@ -130,21 +315,22 @@ public class LancamentoService {
 				}
 		);
 
-		return new ResultadoVO(df.format(getTotalSaida(resultado)),
-				df.format(getTotalEntrada(resultado)),
-				lancamentos, tamanhoPagina, totalRegistros);
-	}
-
-	protected DecimalFormat getDecimalFormat(){
-		return new DecimalFormat("#,###,##0.00");
-	}
-
-	protected SimpleDateFormat getDateFormat(){
-		return new SimpleDateFormat(DD_MM_YYYY);
+		return new ResultadoVO(FormatoNumerico.VALOR.formata(getTotalSaida(resultado)),
+				FormatoNumerico.VALOR.formata(getTotalEntrada(resultado)),
+				lancamentos, tamanhoPagina, totalRegistros, totalExato);
 	}
 
+	/**
+	 * @return o lançamento, ou uma cópia do arquivado com o mesmo id, já que os arquivados também
+	 * aparecem nas buscas e podem ser editados
+	 */
 	public Lancamento buscaPorId(Long id){
-		return lancamentoRepository.findOne(id);
+		final Lancamento lancamento = lancamentoRepository.findOne(id);
+		if(lancamento != null){
+			return lancamento;
+		}
+		final LancamentoArquivado arquivado = entityManager.find(LancamentoArquivado.class, id);
+		return arquivado != null ? arquivado.paraLancamento() : null;
 	}
 
 	public BigDecimal getTotalEntrada(final List<Lancamento> lancamentos){
@@ -155,21 +341,82 @@ public class LancamentoService {
 		return somaValoresPorTipo(lancamentos, TipoLancamento.SAIDA);
 	}
 
+	/**
+	 * Soma em centavos num <code>long</code>; o resultado é o mesmo da soma de {@link BigDecimal}, inclusive
+	 * na escala (a maior entre os valores somados). Valores com mais de duas casas ou que estourariam
+	 * o <code>long</code> voltam para a soma de {@link BigDecimal}.
+	 */
 	protected BigDecimal somaValoresPorTipo(List<Lancamento> lancamentos, TipoLancamento tipo){
+		long centavos = 0;
+		int escala = -1;
+		for (Lancamento lancamento : lancamentos) {
+			if (lancamento.getTipoLancamento() != tipo) {
+				continue;
+			}
+			final BigDecimal valor = lancamento.getValor();
+			if (valor.scale() < 0 || valor.scale() > 2 || valor.precision() > 16) {
+				return somaValoresPorTipoSemLimite(lancamentos, tipo);
+			}
+			final long naoEscalado = valor.unscaledValue().longValue();
+			try {
+				centavos = Math.addExact(centavos, valor.scale() == 2 ? naoEscalado : naoEscalado * (valor.scale() == 1 ? 10 : 100));
+			} catch (ArithmeticException e) {
+				return somaValoresPorTipoSemLimite(lancamentos, tipo);
+			}
+			escala = Math.max(escala, valor.scale());
+		}
+		return escala < 0 ? BigDecimal.ZERO : BigDecimal.valueOf(centavos, 2).setScale(escala, RoundingMode.UNNECESSARY);
+	}
+
+	private BigDecimal somaValoresPorTipoSemLimite(List<Lancamento> lancamentos, TipoLancamento tipo){
 		return lancamentos.stream()
 				.filter(l -> l.getTipoLancamento() == tipo)
 				.map(Lancamento::getValor)
 				.reduce(BigDecimal.ZERO, BigDecimal::add);
 	}
 
+	/**
+	 * Totais por tipo no período, somados pelo {@link InstantaneoColunar} quando ele está habilitado;
+	 * senão guardados em cache até que um lançamento do período seja alterado
+	 */
 	public List<TotalLancamentoVO> getTotalPorPeriodo(Date dataInicial, Date dataFinal){
+		if(instantaneoColunar.isPronto()){
+			return instantaneoColunar.getTotalPorPeriodo(dataInicial, dataFinal);
+		}
+		return cacheTotais.getTotaisPorPeriodo().obtem(dataInicial, dataFinal,
+				() -> Collections.unmodifiableList(calculaTotalPorPeriodo(dataInicial, dataFinal)));
+	}
+
+	public List<TotalLancamentoCategoriaVO> getTotalPorPeriodoPorCategoria(Date dataInicial, Date dataFinal){
+		if(instantaneoColunar.isPronto()){
+			return instantaneoColunar.getTotalPorPeriodoPorCategoria(dataInicial, dataFinal);
+		}
+		return cacheTotais.getTotaisPorCategoria().obtem(dataInicial, dataFinal,
+				() -> Collections.unmodifiableList(calculaTotalPorPeriodoPorCategoria(dataInicial, dataFinal)));
+	}
+
+	/**
+	 * Totais por tipo no período, somados a partir dos totais diários. Enquanto os totais diários
+	 * não foram conferidos na inicialização, soma diretamente os lançamentos.
+	 */
+	protected List<TotalLancamentoVO> calculaTotalPorPeriodo(Date dataInicial, Date dataFinal){
+		if(totalDiarioService.isConsistente()){
+			return totalDiarioService.getTotalPorPeriodo(dataInicial, dataFinal);
+		}
 		return entityManager.createNamedQuery("lancamento.totalLancamentosPorPeriodo", TotalLancamentoVO.class)
 				.setParameter("dataInicial", dataInicial)
 				.setParameter("dataFinal", dataFinal)
 				.getResultList();
 	}
 
-	public List<TotalLancamentoCategoriaVO> getTotalPorPeriodoPorCategoria(Date dataInicial, Date dataFinal){
+	/**
+	 * Totais por categoria no período, com a mesma origem de {@link #calculaTotalPorPeriodo(Date, Date)};
+	 * com os totais diários, intervalos de vários meses são somados mês a mês em paralelo.
+	 */
+	protected List<TotalLancamentoCategoriaVO> calculaTotalPorPeriodoPorCategoria(Date dataInicial, Date dataFinal){
+		if(totalDiarioService.isConsistente()){
+			return agregadorPorMes.agrega(dataInicial, dataFinal, totalDiarioService::getTotalPorPeriodoPorCategoria);
+		}
 		return entityManager.createNamedQuery("lancamento.totalLancamentosPorPeriodoPorCategoria", TotalLancamentoCategoriaVO.class)
 				.setParameter("dataInicial", dataInicial)
 				.setParameter("dataFinal", dataFinal)
@@ -0,0 +1,24 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Publicado pelo {@link LancamentoService} a cada gravação ou remoção de lançamentos,
+ * para que as estruturas derivadas da tabela de lançamentos se mantenham atualizadas.
+ */
+public class LancamentosAlteradosEvent {
+
+    @Getter
+    private final List<AlteracaoLancamento> alteracoes;
+
+    public LancamentosAlteradosEvent(List<AlteracaoLancamento> alteracoes) {
+        this.alteracoes = Collections.unmodifiableList(alteracoes);
+    }
+
+    public LancamentosAlteradosEvent(AlteracaoLancamento alteracao) {
+        this(Collections.singletonList(alteracao));
+    }
+}
@@ -0,0 +1,178 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.StringToMoneyConverter;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
+
+/**
+ * Lê o CSV no mesmo layout da exportação: separado por ponto e vírgula, campos entre aspas
+ * quando necessário e cabeçalho com os nomes das colunas (a ordem é livre e o id é ignorado).
+ */
+class LeitorCsvImportacao extends LeitorImportacao {
+
+    private static final char SEPARADOR = ';';
+    private static final String[] COLUNAS = {"data", "descricao", "valor", "tipo", "categoria"};
+
+    private final Reader entrada;
+    private final DateFormat formatoData = new SimpleDateFormat(DD_MM_YYYY);
+    private final StringToMoneyConverter conversorValor = new StringToMoneyConverter();
+    private final StringBuilder campo = new StringBuilder();
+
+    private int[] posicoes;
+    private long linha = 1;
+    private int proximoCaractere = -2;
+
+    LeitorCsvImportacao(Reader entrada) {
+        this.entrada = entrada;
+        this.formatoData.setLenient(false);
+    }
+
+    @Override
+    LinhaImportacao proxima() throws IOException {
+        if (posicoes == null) {
+            leCabecalho();
+        }
+        List<String> campos;
+        long numero;
+        do {
+            numero = linha;
+            campos = registro();
+            if (campos == null) {
+                return null;
+            }
+        } while (campos.size() == 1 && campos.get(0).trim().isEmpty());
+
+        try {
+            return LinhaImportacao.lida(numero, lancamento(campos));
+        } catch (RuntimeException e) {
+            return LinhaImportacao.comErro(numero, e.getMessage());
+        }
+    }
+
+    private void leCabecalho() throws IOException {
+        posicoes = new int[COLUNAS.length];
+        final List<String> cabecalho = registro();
+        for (int i = 0; i < COLUNAS.length; i++) {
+            posicoes[i] = -1;
+            for (int j = 0; cabecalho != null && j < cabecalho.size(); j++) {
+                if (IndiceBuscaLancamento.normaliza(cabecalho.get(j).replace("\uFEFF", "").trim()).equals(COLUNAS[i])) {
+                    posicoes[i] = j;
+                }
+            }
+            if (posicoes[i] < 0) {
+                throw new IOException("Cabeçalho do CSV sem a coluna " + COLUNAS[i]);
+            }
+        }
+    }
+
+    private Lancamento lancamento(List<String> campos) {
+        final Lancamento lancamento = new Lancamento();
+        final String data = coluna(campos, 0);
+        if (!data.isEmpty()) {
+            try {
+                lancamento.setDataLancamento(formatoData.parse(data));
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Data inválida: " + data);
+            }
+        }
+        lancamento.setDescricao(coluna(campos, 1));
+        final String valor = coluna(campos, 2);
+        try {
+            lancamento.setValor(conversorValor.convert(valor));
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Valor inválido: " + valor);
+        }
+        final String tipo = coluna(campos, 3);
+        if (!tipo.isEmpty()) {
+            lancamento.setTipoLancamento(tipo(tipo));
+        }
+        final String categoria = coluna(campos, 4);
+        if (!categoria.isEmpty()) {
+            final Categoria encontrada = categoria(categoria);
+            if (encontrada == null) {
+                throw new IllegalArgumentException("Categoria inválida: " + categoria);
+            }
+            lancamento.setCategoria(encontrada);
+        }
+        return lancamento;
+    }
+
+    private String coluna(List<String> campos, int coluna) {
+        final int posicao = posicoes[coluna];
+        return posicao < campos.size() ? campos.get(posicao).trim() : "";
+    }
+
+    /**
+     * @return campos do próximo registro; um campo entre aspas pode conter quebras de linha
+     */
+    private List<String> registro() throws IOException {
+        int c = le();
+        if (c == -1) {
+            return null;
+        }
+        final List<String> campos = new ArrayList<>();
+        boolean entreAspas = false;
+        campo.setLength(0);
+        while (true) {
+            if (entreAspas) {
+                if (c == -1) {
+                    throw new IOException("Aspas não fechadas no registro da linha " + linha);
+                }
+                if (c == '"') {
+                    c = le();
+                    if (c != '"') {
+                        entreAspas = false;
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    linha++;
+                }
+                campo.append((char) c);
+            } else if (c == '"' && campo.length() == 0) {
+                entreAspas = true;
+            } else if (c == SEPARADOR) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    c = le();
+                    if (c != '\n') {
+                        devolve(c);
+                    }
+                }
+                if (c != -1) {
+                    linha++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = le();
+        }
+    }
+
+    private int le() throws IOException {
+        if (proximoCaractere != -2) {
+            final int c = proximoCaractere;
+            proximoCaractere = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+
+    private void devolve(int c) {
+        proximoCaractere = c;
+    }
+}
@@ -0,0 +1,41 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+
+import java.io.IOException;
+
+/**
+ * Lê os lançamentos de um arquivo importado um registro por vez.
+ */
+abstract class LeitorImportacao {
+
+    /**
+     * @return próximo registro ou <code>null</code> no fim do arquivo
+     * @throws IOException quando o arquivo não pode mais ser lido; os erros de um registro
+     * são devolvidos na própria {@link LinhaImportacao}
+     */
+    abstract LinhaImportacao proxima() throws IOException;
+
+    static TipoLancamento tipo(String texto) {
+        final String normalizado = IndiceBuscaLancamento.normaliza(texto.trim());
+        for (TipoLancamento tipo : TipoLancamento.values()) {
+            if (IndiceBuscaLancamento.normaliza(tipo.name()).equals(normalizado)
+                    || IndiceBuscaLancamento.normaliza(tipo.getTipo()).equals(normalizado)) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de lançamento inválido: " + texto);
+    }
+
+    static Categoria categoria(String texto) {
+        final String normalizado = IndiceBuscaLancamento.normaliza(texto.trim());
+        for (Categoria categoria : Categoria.values()) {
+            if (IndiceBuscaLancamento.normaliza(categoria.name()).equals(normalizado)
+                    || IndiceBuscaLancamento.normaliza(categoria.getNome()).equals(normalizado)) {
+                return categoria;
+            }
+        }
+        return null;
+    }
+}
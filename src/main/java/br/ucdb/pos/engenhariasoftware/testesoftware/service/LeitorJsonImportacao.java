@@ -0,0 +1,64 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lê um array JSON de lançamentos, no mesmo formato aceito pelos formulários,
+ * materializando um elemento do array por vez.
+ */
+class LeitorJsonImportacao extends LeitorImportacao {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+
+    private long elemento;
+    private boolean iniciado;
+
+    LeitorJsonImportacao(ObjectMapper objectMapper, Reader entrada) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(entrada);
+    }
+
+    @Override
+    LinhaImportacao proxima() throws IOException {
+        if (!iniciado) {
+            iniciado = true;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("A importação em JSON espera um array de lançamentos");
+            }
+        }
+        final JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        elemento++;
+        final JsonNode no = objectMapper.readTree(parser);
+        if (!no.isObject()) {
+            return LinhaImportacao.comErro(elemento, "O elemento não é um lançamento");
+        }
+        final ObjectNode objeto = (ObjectNode) no;
+        objeto.remove("id");
+        final JsonNode valor = objeto.get("valor");
+        if (valor != null && valor.isNumber()) {
+            // o MoneyDeserialize espera o valor formatado, com vírgula decimal
+            objeto.set("valor", new TextNode(valor.decimalValue().toPlainString().replace('.', ',')));
+        }
+        try {
+            return LinhaImportacao.lida(elemento, objectMapper.treeToValue(objeto, Lancamento.class));
+        } catch (JsonProcessingException e) {
+            return LinhaImportacao.comErro(elemento, e.getOriginalMessage());
+        } catch (RuntimeException e) {
+            return LinhaImportacao.comErro(elemento, e.getMessage());
+        }
+    }
+}
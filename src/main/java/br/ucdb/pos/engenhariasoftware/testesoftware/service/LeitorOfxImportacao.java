@@ -0,0 +1,133 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lê as transações (STMTTRN) de um extrato OFX. Percorre as tags sem montar a árvore do documento,
+ * o que atende tanto o OFX 1 (SGML, com tags de valor sem fechamento) quanto o OFX 2 (XML).
+ * Valores negativos viram saídas; sem categoria reconhecida no MEMO, o lançamento fica em Outros.
+ */
+class LeitorOfxImportacao extends LeitorImportacao {
+
+    private final Reader entrada;
+    private final DateFormat formatoData = new SimpleDateFormat("yyyyMMdd");
+    private final StringBuilder texto = new StringBuilder();
+    private final Map<String, String> campos = new HashMap<>();
+
+    private long transacao;
+    private int proximoCaractere = -2;
+
+    LeitorOfxImportacao(Reader entrada) {
+        this.entrada = entrada;
+        this.formatoData.setLenient(false);
+    }
+
+    @Override
+    LinhaImportacao proxima() throws IOException {
+        boolean dentroDaTransacao = false;
+        String tag;
+        while ((tag = proximaTag()) != null) {
+            if (tag.equals("STMTTRN")) {
+                dentroDaTransacao = true;
+                campos.clear();
+            } else if (tag.equals("/STMTTRN") && dentroDaTransacao) {
+                transacao++;
+                try {
+                    return LinhaImportacao.lida(transacao, lancamento());
+                } catch (RuntimeException e) {
+                    return LinhaImportacao.comErro(transacao, e.getMessage());
+                }
+            } else if (dentroDaTransacao && !tag.startsWith("/")) {
+                campos.put(tag, valor());
+            }
+        }
+        return null;
+    }
+
+    private Lancamento lancamento() {
+        final Lancamento lancamento = new Lancamento();
+        final String data = campos.get("DTPOSTED");
+        if (data != null && data.length() >= 8) {
+            try {
+                lancamento.setDataLancamento(formatoData.parse(data.substring(0, 8)));
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Data inválida: " + data);
+            }
+        }
+        final String valor = campos.get("TRNAMT");
+        if (valor != null && !valor.isEmpty()) {
+            final BigDecimal quantia;
+            try {
+                quantia = new BigDecimal(valor.replace(',', '.'));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido: " + valor);
+            }
+            lancamento.setTipoLancamento(quantia.signum() < 0 ? TipoLancamento.SAIDA : TipoLancamento.ENTRADA);
+            lancamento.setValor(quantia.abs());
+        }
+        final String nome = campos.get("NAME");
+        final String memo = campos.get("MEMO");
+        lancamento.setDescricao(nome != null && !nome.isEmpty() ? nome : memo);
+        final Categoria categoria = memo != null ? categoria(memo) : null;
+        lancamento.setCategoria(categoria != null ? categoria : Categoria.OUTROS);
+        return lancamento;
+    }
+
+    /**
+     * @return nome da próxima tag, com "/" na frente quando é de fechamento
+     */
+    private String proximaTag() throws IOException {
+        int c;
+        while ((c = le()) != -1) {
+            if (c != '<') {
+                continue;
+            }
+            texto.setLength(0);
+            while ((c = le()) != -1 && c != '>') {
+                texto.append((char) c);
+            }
+            if (texto.length() > 0 && texto.charAt(0) != '?' && texto.charAt(0) != '!') {
+                return texto.toString().trim().toUpperCase();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return texto entre a tag corrente e a próxima tag
+     */
+    private String valor() throws IOException {
+        texto.setLength(0);
+        int c;
+        while ((c = le()) != -1 && c != '<') {
+            texto.append((char) c);
+        }
+        if (c == '<') {
+            proximoCaractere = c;
+        }
+        return texto.toString().trim()
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&");
+    }
+
+    private int le() throws IOException {
+        if (proximoCaractere != -2) {
+            final int c = proximoCaractere;
+            proximoCaractere = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+}
@@ -0,0 +1,33 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import lombok.Getter;
+
+/**
+ * Registro lido do arquivo importado: um lançamento ou o motivo pelo qual ele não pôde ser lido.
+ */
+class LinhaImportacao {
+
+    @Getter
+    private final long numero;
+
+    @Getter
+    private final Lancamento lancamento;
+
+    @Getter
+    private final String erro;
+
+    private LinhaImportacao(long numero, Lancamento lancamento, String erro) {
+        this.numero = numero;
+        this.lancamento = lancamento;
+        this.erro = erro;
+    }
+
+    static LinhaImportacao lida(long numero, Lancamento lancamento) {
+        return new LinhaImportacao(numero, lancamento, null);
+    }
+
+    static LinhaImportacao comErro(long numero, String erro) {
+        return new LinhaImportacao(numero, null, erro);
+    }
+}
@@ -0,0 +1,44 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Bases criadas antes dos valores em centavos ainda têm as colunas decimais; o Hibernate só cria as
+ * novas colunas, então os valores são copiados e as colunas antigas removidas antes de qualquer gravação.
+ * Os totais diários antigos são descartados e reconstruídos pelo {@link TotalDiarioService}.
+ */
+@Component
+public class MigracaoValoresCentavos {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Garante que o esquema (e as colunas em centavos) já foi atualizado pelo Hibernate.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void migra() {
+        if (existeColuna("LANCAMENTO", "VALOR")) {
+            jdbcTemplate.update("update lancamento set valor_centavos = cast(round(valor * 100, 0) as bigint) where valor is not null");
+            jdbcTemplate.execute("alter table lancamento drop column valor");
+        }
+        if (existeColuna("TOTAL_DIARIO", "TOTAL")) {
+            jdbcTemplate.update("delete from total_diario");
+            jdbcTemplate.execute("alter table total_diario drop column total");
+        }
+    }
+
+    private boolean existeColuna(String tabela, String coluna) {
+        final Long quantidade = jdbcTemplate.queryForObject("select count(*) from information_schema.columns " +
+                "where table_name = ? and column_name = ?", Long.class, tabela, coluna);
+        return quantidade != null && quantidade > 0;
+    }
+}
@@ -0,0 +1,23 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+/**
+ * Como o total de registros é calculado junto com a página de uma busca.
+ */
+public enum ModoContagem {
+
+    /**
+     * Total exato de lançamentos encontrados.
+     */
+    EXATA,
+
+    /**
+     * Total conhecido sem consulta adicional; quando a página está cheia é apenas um limite inferior.
+     */
+    APROXIMADA,
+
+    /**
+     * O cliente não precisa do total: só a página é lida e o total fica
+     * {@link ResultadoBusca#TOTAL_DESCONHECIDO}.
+     */
+    NENHUMA
+}
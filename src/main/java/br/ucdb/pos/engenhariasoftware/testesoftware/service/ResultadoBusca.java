@@ -0,0 +1,32 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Página de uma busca junto com o total de lançamentos encontrados.
+ */
+public class ResultadoBusca {
+
+    /**
+     * Total de uma busca feita com {@link ModoContagem#NENHUMA}.
+     */
+    public static final long TOTAL_DESCONHECIDO = -1;
+
+    @Getter
+    private final List<Lancamento> lancamentos;
+
+    @Getter
+    private final long total;
+
+    @Getter
+    private final boolean totalExato;
+
+    public ResultadoBusca(List<Lancamento> lancamentos, long total, boolean totalExato) {
+        this.lancamentos = lancamentos;
+        this.total = total;
+        this.totalExato = totalExato;
+    }
+}
@@ -0,0 +1,56 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumo de uma importação. Os erros detalhados são limitados para que um arquivo
+ * inteiro inválido não ocupe memória proporcional ao seu tamanho.
+ */
+public class ResultadoImportacao {
+
+    @Getter
+    private long importados;
+
+    @Getter
+    private long rejeitados;
+
+    @Getter
+    private final List<ErroImportacao> erros = new ArrayList<>();
+
+    private final int maximoErros;
+
+    ResultadoImportacao(int maximoErros) {
+        this.maximoErros = maximoErros;
+    }
+
+    void importados(int quantidade) {
+        importados += quantidade;
+    }
+
+    void rejeitado(long linha, String mensagem) {
+        rejeitados++;
+        if (erros.size() < maximoErros) {
+            erros.add(new ErroImportacao(linha, mensagem));
+        }
+    }
+
+    public static class ErroImportacao {
+
+        /**
+         * Linha do CSV, ou posição da transação no OFX e do elemento no array JSON.
+         */
+        @Getter
+        private final long linha;
+
+        @Getter
+        private final String mensagem;
+
+        ErroImportacao(long linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+    }
+}
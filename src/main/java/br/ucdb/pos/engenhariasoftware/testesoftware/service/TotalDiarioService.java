@@ -0,0 +1,200 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.converter.CentavosConverter;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TotalDiario;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+import javax.transaction.Transactional;
+import java.util.*;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Datas.inicioDoDia;
+
+/**
+ * Mantém a tabela de totais diários ({@link TotalDiario}) a partir das gravações de lançamentos.
+ * A atualização acontece na mesma transação da gravação, de modo que os totais nunca divergem
+ * dos lançamentos confirmados.
+ */
+@Service
+public class TotalDiarioService {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private volatile boolean consistente;
+
+	/**
+	 * @return <code>true</code> depois que os totais diários foram conferidos com os lançamentos
+	 */
+	public boolean isConsistente() {
+		return consistente;
+	}
+
+	/**
+	 * Confere a quantidade e a soma dos valores consolidados com as tabelas de lançamentos e de
+	 * lançamentos arquivados e reconstrói os totais diários quando divergem, como na primeira execução
+	 * com uma base já existente ou depois de uma alteração feita direto no banco.
+	 */
+	@Transactional
+	@EventListener(ApplicationReadyEvent.class)
+	public void verificaConsistencia() {
+		final Object[] atuais = resumo("lancamento.resumo");
+		final Object[] arquivados = resumo("lancamentoArquivado.resumo");
+		final Object[] consolidados = resumo("totalDiario.resumo");
+		if (numero(atuais[0]) + numero(arquivados[0]) != numero(consolidados[0])
+				|| numero(atuais[1]) + numero(arquivados[1]) != numero(consolidados[1])) {
+			reconstroi();
+		}
+		consistente = true;
+	}
+
+	/**
+	 * @return quantidade e soma dos valores em centavos; a soma vem <code>null</code> com a tabela vazia
+	 */
+	private Object[] resumo(String consulta) {
+		return (Object[]) entityManager.createNamedQuery(consulta).getSingleResult();
+	}
+
+	private static long numero(Object valor) {
+		return valor == null ? 0 : ((Number) valor).longValue();
+	}
+
+	private void reconstroi() {
+		entityManager.createQuery("delete from TotalDiario").executeUpdate();
+		final Map<Chave, TotalDiario> totais = new HashMap<>();
+		consolida(totais, "lancamento.totaisPorData");
+		consolida(totais, "lancamentoArquivado.totaisPorData");
+		totais.values().forEach(entityManager::persist);
+	}
+
+	private void consolida(Map<Chave, TotalDiario> totais, String consultaTotaisPorData) {
+		@SuppressWarnings("unchecked")
+		final List<Object[]> linhas = entityManager.createNamedQuery(consultaTotaisPorData).getResultList();
+		for (Object[] linha : linhas) {
+			final Chave chave = new Chave(inicioDoDia((Date) linha[0]), (TipoLancamento) linha[1], (Categoria) linha[2]);
+			final TotalDiario total = totais.computeIfAbsent(chave, Chave::novoTotal);
+			total.setTotalCentavos(total.getTotalCentavos() + (Long) linha[3]);
+			total.setQuantidade(total.getQuantidade() + (Long) linha[4]);
+		}
+	}
+
+	/**
+	 * Aplica as alterações de lançamentos aos totais diários. Executado de forma síncrona, dentro da
+	 * transação que gravou os lançamentos.
+	 * @param evento alterações publicadas pelo {@link LancamentoService}
+	 */
+	@EventListener
+	public void atualiza(LancamentosAlteradosEvent evento) {
+		final Map<Chave, Variacao> variacoes = new LinkedHashMap<>();
+		for (AlteracaoLancamento alteracao : evento.getAlteracoes()) {
+			if (alteracao.getAnterior() != null) {
+				variacao(variacoes, alteracao.getAnterior()).subtrai(CentavosConverter.centavos(alteracao.getAnterior().getValor()));
+			}
+			if (alteracao.getAtual() != null) {
+				variacao(variacoes, alteracao.getAtual()).soma(CentavosConverter.centavos(alteracao.getAtual().getValor()));
+			}
+		}
+		variacoes.forEach((chave, variacao) -> {
+			if (!variacao.isNula()) {
+				aplica(chave, variacao);
+			}
+		});
+	}
+
+	private Variacao variacao(Map<Chave, Variacao> variacoes, Lancamento lancamento) {
+		final Chave chave = new Chave(inicioDoDia(lancamento.getDataLancamento()), lancamento.getTipoLancamento(), lancamento.getCategoria());
+		return variacoes.computeIfAbsent(chave, c -> new Variacao());
+	}
+
+	private void aplica(Chave chave, Variacao variacao) {
+		final TypedQuery<TotalDiario> consulta = chave.categoria == null ?
+				entityManager.createNamedQuery("totalDiario.doDiaSemCategoria", TotalDiario.class) :
+				entityManager.createNamedQuery("totalDiario.doDia", TotalDiario.class)
+						.setParameter("categoria", chave.categoria);
+		final List<TotalDiario> encontrados = consulta
+				.setParameter("dia", chave.dia, TemporalType.DATE)
+				.setParameter("tipoLancamento", chave.tipo)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultList();
+
+		if (encontrados.isEmpty()) {
+			final TotalDiario total = chave.novoTotal();
+			total.setTotalCentavos(variacao.centavos);
+			total.setQuantidade(variacao.quantidade);
+			entityManager.persist(total);
+			return;
+		}
+		final TotalDiario total = encontrados.get(0);
+		total.setTotalCentavos(total.getTotalCentavos() + variacao.centavos);
+		total.setQuantidade(total.getQuantidade() + variacao.quantidade);
+		if (total.getQuantidade() == 0) {
+			entityManager.remove(total);
+		}
+	}
+
+	public List<TotalLancamentoVO> getTotalPorPeriodo(Date dataInicial, Date dataFinal) {
+		return entityManager.createNamedQuery("totalDiario.totalPorPeriodo", TotalLancamentoVO.class)
+				.setParameter("dataInicial", dataInicial, TemporalType.DATE)
+				.setParameter("dataFinal", dataFinal, TemporalType.DATE)
+				.getResultList();
+	}
+
+	public List<TotalLancamentoCategoriaVO> getTotalPorPeriodoPorCategoria(Date dataInicial, Date dataFinal) {
+		return entityManager.createNamedQuery("totalDiario.totalPorPeriodoPorCategoria", TotalLancamentoCategoriaVO.class)
+				.setParameter("dataInicial", dataInicial, TemporalType.DATE)
+				.setParameter("dataFinal", dataFinal, TemporalType.DATE)
+				.getResultList();
+	}
+
+	@EqualsAndHashCode
+	private static class Chave {
+		private final Date dia;
+		private final TipoLancamento tipo;
+		private final Categoria categoria;
+
+		Chave(Date dia, TipoLancamento tipo, Categoria categoria) {
+			this.dia = dia;
+			this.tipo = tipo;
+			this.categoria = categoria;
+		}
+
+		TotalDiario novoTotal() {
+			final TotalDiario total = new TotalDiario();
+			total.setDia(dia);
+			total.setTipoLancamento(tipo);
+			total.setCategoria(categoria);
+			return total;
+		}
+	}
+
+	private static class Variacao {
+		private long centavos;
+		private long quantidade;
+
+		void soma(long valorCentavos) {
+			centavos += valorCentavos;
+			quantidade++;
+		}
+
+		void subtrai(long valorCentavos) {
+			centavos -= valorCentavos;
+			quantidade--;
+		}
+
+		boolean isNula() {
+			return quantidade == 0 && centavos == 0;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão dos lançamentos, incrementada a cada gravação ou remoção confirmada. Começa no instante da
+ * inicialização, para que as versões não se repitam entre execuções da aplicação.
+ * Os ouvintes que atualizam as estruturas derivadas (índice, caches e instantâneo) têm ordem menor
+ * e executam antes deste, de modo que uma versão nova nunca é servida com dados antigos.
+ */
+@Component
+public class VersaoLancamentos {
+
+    /**
+     * Ordem dos ouvintes que precisam executar antes do incremento da versão.
+     */
+    public static final int ANTES_DO_INCREMENTO = 0;
+
+    private final AtomicLong versao;
+
+    private volatile long ultimaAlteracao;
+
+    public VersaoLancamentos() {
+        ultimaAlteracao = System.currentTimeMillis();
+        versao = new AtomicLong(ultimaAlteracao);
+    }
+
+    public long getVersao() {
+        return versao.get();
+    }
+
+    /**
+     * @return instante da última alteração confirmada, ou da inicialização
+     */
+    public long getUltimaAlteracao() {
+        return ultimaAlteracao;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void incrementa(LancamentosAlteradosEvent evento) {
+        incrementa();
+    }
+
+    /**
+     * Incrementa a versão para alterações que não publicam {@link LancamentosAlteradosEvent},
+     * como o arquivamento dos lançamentos antigos.
+     */
+    public void incrementa() {
+        ultimaAlteracao = System.currentTimeMillis();
+        versao.incrementAndGet();
+    }
+}
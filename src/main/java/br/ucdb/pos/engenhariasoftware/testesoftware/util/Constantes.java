@@ -6,4 +6,17 @@ public class Constantes {
 
     public static final Locale BR = new Locale("pt", "BR");
     public static final String DD_MM_YYYY = "dd/MM/yyyy";
+
+    /**
+     * Quantidade de ids de lançamento reservados a cada acesso à sequência; permite que as inclusões
+     * sejam agrupadas em lotes JDBC.
+     */
+    public static final int ALOCACAO_IDS_LANCAMENTO = 50;
+
+    /**
+     * Região do cache de segundo nível dos lançamentos e região dos resultados das suas consultas
+     * nomeadas, configuradas em <code>ehcache-hibernate.xml</code>.
+     */
+    public static final String REGIAO_LANCAMENTO = "lancamento";
+    public static final String REGIAO_CONSULTAS_LANCAMENTO = "lancamento.consultas";
 }
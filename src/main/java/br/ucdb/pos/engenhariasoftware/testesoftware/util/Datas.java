@@ -0,0 +1,33 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Limites de dia das datas no fuso horário padrão, usados para agrupar e invalidar por dia os
+ * totais e os caches de lançamentos.
+ */
+public final class Datas {
+
+    private Datas() {
+    }
+
+    /**
+     * @param data qualquer instante
+     * @return início do dia da data, no fuso horário do sistema
+     */
+    public static Date inicioDoDia(Date data) {
+        final ZoneId fuso = ZoneId.systemDefault();
+        return Date.from(Instant.ofEpochMilli(data.getTime()).atZone(fuso).toLocalDate().atStartOfDay(fuso).toInstant());
+    }
+
+    /**
+     * @param data qualquer instante
+     * @return início do dia seguinte ao da data, no fuso horário do sistema
+     */
+    public static Date inicioDoDiaSeguinte(Date data) {
+        final ZoneId fuso = ZoneId.systemDefault();
+        return Date.from(Instant.ofEpochMilli(data.getTime()).atZone(fuso).toLocalDate().plusDays(1).atStartOfDay(fuso).toInstant());
+    }
+}
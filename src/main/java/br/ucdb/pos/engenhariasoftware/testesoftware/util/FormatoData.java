@@ -0,0 +1,47 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.util;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
+
+/**
+ * Formatação de datas no padrão {@link Constantes#DD_MM_YYYY}, com a mesma saída de um
+ * {@link SimpleDateFormat} no fuso horário padrão, sem criar um formatador por chamada.
+ * Datas anteriores a 1900 (calendário juliano e horários locais médios do tzdb) continuam
+ * com o {@link SimpleDateFormat}.
+ */
+public final class FormatoData {
+
+    private static final long INICIO_1900 = -2_208_988_800_000L;
+
+    private static final ThreadLocal<StringBuilder> TEXTO = ThreadLocal.withInitial(() -> new StringBuilder(10));
+
+    private FormatoData() {
+    }
+
+    public static String formata(Date data) {
+        final StringBuilder texto = TEXTO.get();
+        texto.setLength(0);
+        return formata(data, texto).toString();
+    }
+
+    public static StringBuilder formata(Date data, StringBuilder destino) {
+        final long millis = data.getTime();
+        if (millis < INICIO_1900) {
+            return destino.append(new SimpleDateFormat(DD_MM_YYYY).format(data));
+        }
+        final int deslocamento = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+        final LocalDate dia = LocalDate.ofEpochDay(Math.floorDiv(Math.floorDiv(millis, 1000L) + deslocamento, 86_400L));
+        doisDigitos(dia.getDayOfMonth(), destino).append('/');
+        doisDigitos(dia.getMonthValue(), destino).append('/');
+        return destino.append(dia.getYear());
+    }
+
+    private static StringBuilder doisDigitos(int valor, StringBuilder destino) {
+        return destino.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+}
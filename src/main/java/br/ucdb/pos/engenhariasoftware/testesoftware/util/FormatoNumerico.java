@@ -0,0 +1,153 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.BR;
+
+/**
+ * Formatação de valores equivalente a um {@link DecimalFormat}, sem criar um formatador por chamada.
+ * Prefixos, sufixos, separadores, agrupamento, casas decimais e arredondamento são lidos uma única
+ * vez do formatador de referência, de modo que a saída é idêntica à dele. Imutável e seguro para
+ * uso concorrente.
+ */
+public final class FormatoNumerico {
+
+    /**
+     * Mesma saída de <code>new DecimalFormat("#,###,##0.00")</code>, usado nos resultados da busca.
+     */
+    public static final FormatoNumerico VALOR = new FormatoNumerico(new DecimalFormat("#,###,##0.00"));
+
+    /**
+     * Mesma saída de <code>NumberFormat.getCurrencyInstance(BR)</code>.
+     */
+    public static final FormatoNumerico MOEDA = new FormatoNumerico((DecimalFormat) NumberFormat.getCurrencyInstance(BR));
+
+    /**
+     * Mesma saída de <code>new DecimalFormat("'R$ ' #,###,##0.00")</code> com os símbolos de {@link Constantes#BR},
+     * usado na tabela do dashboard.
+     */
+    public static final FormatoNumerico REAIS = new FormatoNumerico(
+            new DecimalFormat("'R$ ' #,###,##0.00", DecimalFormatSymbols.getInstance(BR)));
+
+    private static final ThreadLocal<StringBuilder> TEXTO = ThreadLocal.withInitial(() -> new StringBuilder(32));
+    private static final ThreadLocal<char[]> DIGITOS = ThreadLocal.withInitial(() -> new char[19]);
+
+    private final String prefixoPositivo;
+    private final String sufixoPositivo;
+    private final String prefixoNegativo;
+    private final String sufixoNegativo;
+    private final char separadorGrupo;
+    private final char separadorDecimal;
+    private final char zero;
+    private final int tamanhoGrupo;
+    private final int minimoInteiros;
+    private final int minimoFracao;
+    private final int maximoFracao;
+    private final RoundingMode arredondamento;
+
+    FormatoNumerico(DecimalFormat referencia) {
+        if (referencia.getMultiplier() != 1 || referencia.isDecimalSeparatorAlwaysShown()
+                || referencia.toPattern().indexOf('E') >= 0) {
+            throw new IllegalArgumentException("Padrão não suportado: " + referencia.toPattern());
+        }
+        final DecimalFormatSymbols simbolos = referencia.getDecimalFormatSymbols();
+        final boolean monetario = referencia.toPattern().indexOf('¤') >= 0;
+        this.prefixoPositivo = referencia.getPositivePrefix();
+        this.sufixoPositivo = referencia.getPositiveSuffix();
+        this.prefixoNegativo = referencia.getNegativePrefix();
+        this.sufixoNegativo = referencia.getNegativeSuffix();
+        this.separadorGrupo = simbolos.getGroupingSeparator();
+        this.separadorDecimal = monetario ? simbolos.getMonetaryDecimalSeparator() : simbolos.getDecimalSeparator();
+        this.zero = simbolos.getZeroDigit();
+        this.tamanhoGrupo = referencia.isGroupingUsed() ? referencia.getGroupingSize() : 0;
+        this.minimoInteiros = referencia.getMinimumIntegerDigits();
+        this.minimoFracao = referencia.getMinimumFractionDigits();
+        this.maximoFracao = referencia.getMaximumFractionDigits();
+        this.arredondamento = referencia.getRoundingMode();
+    }
+
+    /**
+     * @param valor valor a formatar
+     * @return texto formatado, montado num buffer reaproveitado pela thread
+     */
+    public String formata(BigDecimal valor) {
+        final StringBuilder texto = TEXTO.get();
+        texto.setLength(0);
+        return formata(valor, texto).toString();
+    }
+
+    /**
+     * @param valor valor a formatar
+     * @param destino onde o texto formatado é acrescentado
+     * @return o próprio destino
+     */
+    public StringBuilder formata(BigDecimal valor, StringBuilder destino) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Cannot format given Object as a Number");
+        }
+        // como no DecimalFormat, o sinal é o do valor original: -0,001 vira "-0,00"
+        final boolean negativo = valor.signum() < 0;
+        final BigInteger naoEscalado = valor.setScale(maximoFracao, arredondamento).unscaledValue();
+
+        final char[] digitos;
+        final int inicio;
+        if (naoEscalado.bitLength() < 63) {
+            digitos = DIGITOS.get();
+            long resto = Math.abs(naoEscalado.longValue());
+            int posicao = digitos.length;
+            do {
+                digitos[--posicao] = (char) (zero + (int) (resto % 10));
+                resto /= 10;
+            } while (resto != 0);
+            inicio = posicao;
+        } else {
+            digitos = naoEscalado.abs().toString().toCharArray();
+            if (zero != '0') {
+                for (int i = 0; i < digitos.length; i++) {
+                    digitos[i] = (char) (digitos[i] - '0' + zero);
+                }
+            }
+            inicio = 0;
+        }
+
+        destino.append(negativo ? prefixoNegativo : prefixoPositivo);
+        escreveInteiros(digitos, inicio, digitos.length - maximoFracao, destino);
+        escreveFracao(digitos, inicio, digitos.length - maximoFracao, destino);
+        return destino.append(negativo ? sufixoNegativo : sufixoPositivo);
+    }
+
+    private void escreveInteiros(char[] digitos, int inicio, int fimInteiros, StringBuilder destino) {
+        final int significativos = Math.max(fimInteiros - inicio, 0);
+        final int inteiros = Math.max(significativos, minimoInteiros);
+        for (int i = 0; i < inteiros; i++) {
+            final int restantes = inteiros - i;
+            if (i > 0 && tamanhoGrupo > 0 && restantes % tamanhoGrupo == 0) {
+                destino.append(separadorGrupo);
+            }
+            destino.append(restantes > significativos ? zero : digitos[fimInteiros - restantes]);
+        }
+    }
+
+    private void escreveFracao(char[] digitos, int inicio, int fimInteiros, StringBuilder destino) {
+        int casas = maximoFracao;
+        while (casas > minimoFracao && digito(digitos, inicio, fimInteiros + casas - 1) == zero) {
+            casas--;
+        }
+        if (casas == 0) {
+            return;
+        }
+        destino.append(separadorDecimal);
+        for (int i = 0; i < casas; i++) {
+            destino.append(digito(digitos, inicio, fimInteiros + i));
+        }
+    }
+
+    private char digito(char[] digitos, int inicio, int posicao) {
+        return posicao < inicio ? zero : digitos[posicao];
+    }
+}
@@ -0,0 +1,70 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.controller;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escrita do JSON do gráfico e da tabela do dashboard a partir dos totais já consultados,
+ * para que apenas a serialização seja medida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class DashboardControllerBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int quantidade;
+
+    private static final OutputStream DESCARTE = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final DashboardController controller = new DashboardController();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private List<TotalLancamentoVO> totais;
+    private List<TotalLancamentoCategoriaVO> totaisCategoria;
+
+    @Setup
+    public void prepara() {
+        final Random random = new Random(42);
+        final TipoLancamento[] tipos = TipoLancamento.values();
+        final Categoria[] categorias = Categoria.values();
+        totais = new ArrayList<>(quantidade);
+        totaisCategoria = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            final long total = random.nextInt(100_000_000);
+            totais.add(new TotalLancamentoVO(total, tipos[i % tipos.length]));
+            totaisCategoria.add(new TotalLancamentoCategoriaVO(total, tipos[random.nextInt(tipos.length)],
+                    random.nextInt(10) == 0 ? null : categorias[random.nextInt(categorias.length)]));
+        }
+    }
+
+    @Benchmark
+    public void escreveDados() throws IOException {
+        try (JsonGenerator json = jsonFactory.createGenerator(DESCARTE, JsonEncoding.UTF8)) {
+            controller.escreveDados("Entrada vs Saída", totais, totaisCategoria, json);
+        }
+    }
+}
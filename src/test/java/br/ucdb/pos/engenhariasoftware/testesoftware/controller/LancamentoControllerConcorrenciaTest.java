@@ -0,0 +1,67 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.controller;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.LancamentoService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.servlet.view.RedirectView;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Vários usuários navegando em páginas diferentes ao mesmo tempo: cada redirecionamento depois de
+ * salvar ou remover deve voltar à página de quem fez a requisição.
+ */
+public class LancamentoControllerConcorrenciaTest {
+
+    private static final int PAGINAS = 50;
+
+    private LancamentoController controller;
+
+    @BeforeClass
+    public void init() {
+        final LancamentoService lancamentoService = mock(LancamentoService.class);
+        when(lancamentoService.conta(null)).thenReturn((long) PAGINAS * 10);
+        when(lancamentoService.calculaNumeroPaginas(anyInt())).thenReturn(PAGINAS);
+        when(lancamentoService.buscaPorId(anyLong())).thenReturn(new Lancamento());
+
+        controller = new LancamentoController();
+        ReflectionTestUtils.setField(controller, "lancamentoService", lancamentoService);
+    }
+
+    @Test(threadPoolSize = 200, invocationCount = 2_000)
+    public void redirecionaParaAPaginaDoUsuarioTest() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int pagina = random.nextInt(1, PAGINAS + 1);
+        // outro usuário abrindo outra página entre a listagem e a gravação
+        controller.buscar(random.nextInt(1, PAGINAS + 1));
+
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao("Concorrência");
+        lancamento.setValor(BigDecimal.TEN);
+        lancamento.setDataLancamento(new Date());
+        lancamento.setCategoria(Categoria.OUTROS);
+        final Object salvar = controller.salvar(lancamento, new BeanPropertyBindingResult(lancamento, "lancamento"), pagina);
+        assertEquals(((RedirectView) salvar).getUrl(), "/lancamentos/" + pagina);
+
+        controller.buscar(random.nextInt(1, PAGINAS + 1));
+        assertEquals(controller.remover(random.nextLong(1, 1_000), pagina).getUrl(), "/lancamentos/" + pagina);
+    }
+
+    @Test
+    public void limitaAPaginaAsPaginasExistentesTest() {
+        assertEquals(controller.remover(1L, PAGINAS + 5).getUrl(), "/lancamentos/" + PAGINAS);
+        assertEquals(controller.remover(1L, 0).getUrl(), "/lancamentos/1");
+    }
+}
@@ -0,0 +1,65 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.controller;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.LancamentosAlteradosEvent;
+import br.ucdb.pos.engenhariasoftware.testesoftware.service.VersaoLancamentos;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.Assert.*;
+
+public class RequisicaoCondicionalInterceptorTest {
+
+    private VersaoLancamentos versao;
+    private RequisicaoCondicionalInterceptor interceptor;
+
+    @BeforeMethod
+    public void init() {
+        versao = new VersaoLancamentos();
+        interceptor = new RequisicaoCondicionalInterceptor();
+        ReflectionTestUtils.setField(interceptor, "versaoLancamentos", versao);
+    }
+
+    @Test
+    public void respondeNaoModificadoComMesmaVersaoTest() {
+        final MockHttpServletResponse primeira = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/lancamentos/1"), primeira, null));
+        final String etag = primeira.getHeader("ETag");
+        assertNotNull(etag);
+        assertEquals(primeira.getHeader("Cache-Control"), "no-cache");
+
+        final MockHttpServletRequest revalidacao = new MockHttpServletRequest("GET", "/lancamentos/1");
+        revalidacao.addHeader("If-None-Match", etag);
+        final MockHttpServletResponse segunda = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(revalidacao, segunda, null));
+        assertEquals(segunda.getStatus(), 304);
+    }
+
+    @Test
+    public void novaVersaoDepoisDeAlteracaoTest() {
+        final MockHttpServletResponse primeira = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/dashboard/data"), primeira, null);
+
+        versao.incrementa(new LancamentosAlteradosEvent(Collections.emptyList()));
+
+        final MockHttpServletRequest revalidacao = new MockHttpServletRequest("GET", "/dashboard/data");
+        revalidacao.addHeader("If-None-Match", primeira.getHeader("ETag"));
+        final MockHttpServletResponse segunda = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(revalidacao, segunda, null));
+        assertEquals(segunda.getStatus(), 200);
+        assertNotEquals(segunda.getHeader("ETag"), primeira.getHeader("ETag"));
+    }
+
+    @Test
+    public void ignoraRequisicoesQueNaoSaoConsultasTest() {
+        final MockHttpServletRequest post = new MockHttpServletRequest("POST", "/buscaLancamentos");
+        post.addHeader("If-None-Match", "*");
+        final MockHttpServletResponse resposta = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(post, resposta, null));
+        assertNull(resposta.getHeader("ETag"));
+    }
+}
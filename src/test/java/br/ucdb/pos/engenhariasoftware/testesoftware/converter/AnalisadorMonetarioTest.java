@@ -0,0 +1,48 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.converter;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class AnalisadorMonetarioTest {
+
+    @DataProvider(name = "validos")
+    protected Object[][] validos() {
+        return new Object[][]{
+                {"R$ 1.234,56", "1234.56"},
+                {"-R$ 1.234,56", "-1234.56"},
+                {"R$ -5,5", "-5.5"},
+                {" 10 ", "10"},
+                {"1.2.3", "123"},
+                {",50", "0.50"},
+                {"123456789012345678901234,5678", "123456789012345678901234.5678"}
+        };
+    }
+
+    @Test(dataProvider = "validos")
+    public void analisaMantendoEscalaDigitadaTest(String texto, String esperado) throws ParseException {
+        assertEquals(AnalisadorMonetario.analisa(texto), new BigDecimal(esperado));
+    }
+
+    @Test
+    public void vazioOuSoSimboloTest() throws ParseException {
+        assertNull(AnalisadorMonetario.analisa(null));
+        assertNull(AnalisadorMonetario.analisa(" "));
+        assertNull(AnalisadorMonetario.analisa("R$ "));
+    }
+
+    @DataProvider(name = "invalidos")
+    protected Object[][] invalidos() {
+        return new Object[][]{{"12abc"}, {"1,2,3"}, {"1,"}, {"-"}, {".5"}, {"1,2.3"}, {"123456789012345678901,2.3"}};
+    }
+
+    @Test(dataProvider = "invalidos", expectedExceptions = ParseException.class)
+    public void rejeitaTextoInvalidoTest(String texto) throws ParseException {
+        AnalisadorMonetario.analisa(texto);
+    }
+}
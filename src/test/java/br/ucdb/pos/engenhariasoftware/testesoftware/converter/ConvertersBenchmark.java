@@ -0,0 +1,96 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.converter;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.BR;
+
+/**
+ * Custo de uma conversão em cada conversor registrado no Spring MVC. Cada chamada usa o próximo
+ * valor de um conjunto de entradas distintas, do tamanho indicado por <code>quantidade</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ConvertersBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int quantidade;
+
+    private final StringToMoneyConverter stringToMoney = new StringToMoneyConverter();
+    private final MoneyToStringConverter moneyToString = new MoneyToStringConverter();
+    private final StringToDateConverter stringToDate = new StringToDateConverter();
+    private final DateToStringConverter dateToString = new DateToStringConverter();
+
+    private String[] valoresTexto;
+    private BigDecimal[] valores;
+    private String[] datasTexto;
+    private Date[] datas;
+
+    private int proximo;
+
+    @Setup
+    public void prepara() {
+        final Random random = new Random(42);
+        valoresTexto = new String[quantidade];
+        valores = new BigDecimal[quantidade];
+        datasTexto = new String[quantidade];
+        datas = new Date[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            valores[i] = BigDecimal.valueOf(random.nextInt(100_000_000), 2);
+            // como o campo de valor do formulário envia: "1.234,56"
+            valoresTexto[i] = String.format(BR, "%,.2f", valores[i]);
+            datas[i] = new Date(1514764800000L + random.nextInt(3_650) * 86_400_000L);
+            datasTexto[i] = dateToString.convert(datas[i]);
+        }
+    }
+
+    private int indice() {
+        final int indice = proximo;
+        proximo = indice + 1 == quantidade ? 0 : indice + 1;
+        return indice;
+    }
+
+    @Benchmark
+    public BigDecimal stringToMoney() {
+        return stringToMoney.convert(valoresTexto[indice()]);
+    }
+
+    /**
+     * Referência: a leitura com {@link DecimalFormat} usada antes do {@link AnalisadorMonetario}.
+     */
+    @Benchmark
+    public BigDecimal stringToMoneyDecimalFormat() throws ParseException {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+        symbols.setGroupingSeparator('.');
+        symbols.setDecimalSeparator(',');
+        DecimalFormat decimalFormat = new DecimalFormat("#,##0.0#", symbols);
+        decimalFormat.setParseBigDecimal(true);
+        return new BigDecimal(decimalFormat.parse(valoresTexto[indice()]).toString());
+    }
+
+    @Benchmark
+    public String moneyToString() {
+        return moneyToString.convert(valores[indice()]);
+    }
+
+    @Benchmark
+    public Date stringToDate() {
+        return stringToDate.convert(datasTexto[indice()]);
+    }
+
+    @Benchmark
+    public String dateToString() {
+        return dateToString.convert(datas[indice()]);
+    }
+}
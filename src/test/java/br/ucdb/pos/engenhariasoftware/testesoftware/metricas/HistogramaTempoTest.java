@@ -0,0 +1,46 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.metricas;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+
+public class HistogramaTempoTest {
+
+    @Test
+    public void registraNaFaixaDoLimiteTest() {
+        final HistogramaTempo histograma = new HistogramaTempo();
+        histograma.registra(TimeUnit.MICROSECONDS.toNanos(300));
+        histograma.registra(TimeUnit.MILLISECONDS.toNanos(1));
+        histograma.registra(TimeUnit.MILLISECONDS.toNanos(7));
+        histograma.registra(TimeUnit.SECONDS.toNanos(3));
+
+        assertEquals(histograma.getQuantidade(), 4);
+        assertEquals(histograma.getFaixa(0), 2);
+        assertEquals(histograma.getFaixa(2), 1);
+        assertEquals(histograma.getFaixa(7), 1);
+    }
+
+    @Test
+    public void adicionaMetricasTest() {
+        final HistogramaTempo histograma = new HistogramaTempo();
+        histograma.registra(TimeUnit.MILLISECONDS.toNanos(2));
+        histograma.registra(TimeUnit.MILLISECONDS.toNanos(4));
+        final List<Metric<?>> metricas = new ArrayList<>();
+        histograma.adiciona("teste", metricas);
+
+        assertEquals(valor(metricas, "teste.count"), 2L);
+        assertEquals(valor(metricas, "teste.mean.ms"), 3.0);
+        assertEquals(valor(metricas, "teste.max.ms"), 4.0);
+        assertEquals(valor(metricas, "teste.le.5ms"), 2L);
+        assertEquals(valor(metricas, "teste.gt.1000ms"), 0L);
+    }
+
+    private static Object valor(List<Metric<?>> metricas, String nome) {
+        return metricas.stream().filter(m -> m.getName().equals(nome)).findFirst().get().getValue();
+    }
+}
@@ -0,0 +1,96 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.modelo;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.repository.DialetoHsqldb;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.RowSelection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Confere, com o esquema gerado pelo Hibernate num HSQLDB em memória, que os índices declarados em
+ * {@link Lancamento} existem e que o HSQLDB usa o índice esperado em cada consulta de listagem e de
+ * totais por período. O SQL analisado é o que o Hibernate gera para as consultas nomeadas, com o limite
+ * e as dicas que o serviço aplica.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:plano-consultas",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public class PlanoConsultasLancamentoTest extends AbstractTestNGSpringContextTests {
+
+    private static final Timestamp INICIO = Timestamp.valueOf("2018-01-01 00:00:00");
+    private static final Timestamp FIM = Timestamp.valueOf("2018-01-31 00:00:00");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void indiceDoPeriodoCobreAsColunasDosTotaisTest() {
+        final List<String> colunas = jdbcTemplate.queryForList("select column_name from information_schema.system_indexinfo " +
+                "where table_name = 'LANCAMENTO' and index_name = 'IDX_LANCAMENTO_PERIODO' order by ordinal_position", String.class);
+        assertEquals(String.join(",", colunas), "DATA_LANCAMENTO,TIPO_LANCAMENTO,CATEGORIA,VALOR_CENTAVOS");
+    }
+
+    @Test
+    public void totaisPorPeriodoUsamIndiceDoPeriodoTest() {
+        assertUsaIndice(plano("lancamento.totalLancamentosPorPeriodo", null, INICIO, FIM), "IDX_LANCAMENTO_PERIODO");
+        assertUsaIndice(plano("lancamento.totalLancamentosPorPeriodoPorCategoria", null, INICIO, FIM), "IDX_LANCAMENTO_PERIODO");
+    }
+
+    @Test
+    public void listagemAposCursorUsaIndiceDaDataEIdTest() {
+        // mesmo limite e mesma dica de LancamentoService.buscaApos
+        assertUsaIndice(plano("lancamento.maisRecentesApos", DialetoHsqldb.USA_INDICE_DA_ORDENACAO, INICIO, INICIO, 10L, 10),
+                "IDX_LANCAMENTO_DATA_ID");
+    }
+
+    /**
+     * @param dica dica da consulta, repassada ao dialeto; com ela o SQL ganha o limite, que deve vir
+     * como último parâmetro; <code>null</code> para consultas sem limite
+     * @param parametros valores dos parâmetros da consulta nomeada, na ordem em que aparecem no SQL;
+     * entram como literais, já que o <code>explain plan</code> não aceita parâmetros
+     */
+    private String plano(String consultaNomeada, String dica, Object... parametros) {
+        final SessionFactoryImplementor sessionFactory =
+                (SessionFactoryImplementor) entityManagerFactory.unwrap(SessionFactory.class);
+        final String hql = sessionFactory.getNamedQuery(consultaNomeada).getQueryString();
+        final String[] sql = sessionFactory.getQueryPlanCache()
+                .getHQLQueryPlan(hql, false, Collections.emptyMap()).getSqlStrings();
+        assertEquals(sql.length, 1);
+        String consulta = sql[0];
+        if (dica != null) {
+            final RowSelection selecao = new RowSelection();
+            selecao.setMaxRows((Integer) parametros[parametros.length - 1]);
+            consulta = sessionFactory.getDialect().getQueryHintString(
+                    sessionFactory.getDialect().getLimitHandler().processSql(consulta, selecao),
+                    Collections.singletonList(dica));
+        }
+        for (Object parametro : parametros) {
+            final String literal = parametro instanceof Timestamp ? "timestamp '" + parametro + "'" : parametro.toString();
+            consulta = consulta.replaceFirst("\\?", literal);
+        }
+        return String.join("\n", jdbcTemplate.queryForList("explain plan for " + consulta, String.class));
+    }
+
+    private static void assertUsaIndice(String plano, String indice) {
+        assertTrue(plano.contains("access=INDEX PRED"), plano);
+        assertTrue(plano.contains("index=" + indice + "\n"), plano);
+        assertFalse(plano.contains("access=FULL SCAN"), plano);
+    }
+}
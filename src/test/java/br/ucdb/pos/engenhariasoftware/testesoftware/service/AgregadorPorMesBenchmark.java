@@ -0,0 +1,139 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totais por categoria de vários anos numa única consulta, como hoje, comparados com a soma mês
+ * a mês do {@link AgregadorPorMes}. Usa um HSQLDB em memória com a mesma tabela de totais diários
+ * da aplicação; o paralelismo do agregador acompanha os processadores disponíveis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class AgregadorPorMesBenchmark {
+
+    private static final String URL = "jdbc:hsqldb:mem:agregacao";
+
+    private static final String CONSULTA = "select tipo_lancamento, categoria, sum(total_centavos) from total_diario " +
+            " where dia between ? and ? group by tipo_lancamento, categoria order by tipo_lancamento";
+
+    @Param({"1", "5", "20"})
+    private int anos;
+
+    @Param({"1", "2", "4", "8"})
+    private int paralelismo;
+
+    private AgregadorPorMes agregador;
+    private Connection conexaoPrincipal;
+    private final List<Connection> conexoes = new ArrayList<>();
+    private ThreadLocal<Connection> conexao;
+
+    private Date dataInicial;
+    private Date dataFinal;
+
+    @Setup
+    public void prepara() throws SQLException {
+        conexaoPrincipal = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = conexaoPrincipal.createStatement()) {
+            statement.execute("drop table total_diario if exists");
+            statement.execute("create table total_diario (id bigint generated by default as identity primary key, " +
+                    "dia date, tipo_lancamento varchar(255), categoria varchar(255), total_centavos bigint default 0 not null, " +
+                    "quantidade bigint not null)");
+            statement.execute("create index idx_total_diario_dia on total_diario (dia, tipo_lancamento, categoria)");
+        }
+        final LocalDate primeiroDia = LocalDate.of(2000, 1, 1);
+        final LocalDate ultimoDia = primeiroDia.plusYears(anos).minusDays(1);
+        insereTotais(primeiroDia, ultimoDia);
+        dataInicial = java.sql.Date.valueOf(primeiroDia);
+        dataFinal = java.sql.Date.valueOf(ultimoDia);
+
+        agregador = new AgregadorPorMes(paralelismo);
+        conexao = ThreadLocal.withInitial(() -> {
+            try {
+                final Connection nova = DriverManager.getConnection(URL, "sa", "");
+                synchronized (conexoes) {
+                    conexoes.add(nova);
+                }
+                return nova;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void insereTotais(LocalDate primeiroDia, LocalDate ultimoDia) throws SQLException {
+        final Random random = new Random(42);
+        final Categoria[] categorias = Categoria.values();
+        try (PreparedStatement insert = conexaoPrincipal.prepareStatement("insert into total_diario " +
+                "(dia, tipo_lancamento, categoria, total_centavos, quantidade) values (?, ?, ?, ?, ?)")) {
+            for (LocalDate dia = primeiroDia; !dia.isAfter(ultimoDia); dia = dia.plusDays(1)) {
+                for (int i = 0; i < 5; i++) {
+                    final Categoria categoria = categorias[random.nextInt(categorias.length)];
+                    insert.setDate(1, java.sql.Date.valueOf(dia));
+                    insert.setString(2, (i == 0 ? TipoLancamento.ENTRADA : TipoLancamento.SAIDA).name());
+                    insert.setString(3, categoria.name());
+                    insert.setLong(4, random.nextInt(1_000_000));
+                    insert.setLong(5, 1 + random.nextInt(5));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @TearDown
+    public void encerra() throws SQLException {
+        agregador.encerra();
+        synchronized (conexoes) {
+            for (Connection aberta : conexoes) {
+                aberta.close();
+            }
+        }
+        try (Statement statement = conexaoPrincipal.createStatement()) {
+            statement.execute("shutdown");
+        }
+    }
+
+    @Benchmark
+    public List<TotalLancamentoCategoriaVO> consultaUnica() {
+        return consulta(conexaoPrincipal, dataInicial, dataFinal);
+    }
+
+    @Benchmark
+    public List<TotalLancamentoCategoriaVO> agregacaoPorMes() {
+        return agregador.agrega(dataInicial, dataFinal, (inicio, fim) -> consulta(conexao.get(), inicio, fim));
+    }
+
+    private static List<TotalLancamentoCategoriaVO> consulta(Connection conexao, Date inicio, Date fim) {
+        try (PreparedStatement select = conexao.prepareStatement(CONSULTA)) {
+            select.setDate(1, new java.sql.Date(inicio.getTime()));
+            select.setDate(2, new java.sql.Date(fim.getTime()));
+            final List<TotalLancamentoCategoriaVO> totais = new ArrayList<>();
+            try (ResultSet resultado = select.executeQuery()) {
+                while (resultado.next()) {
+                    final String categoria = resultado.getString(2);
+                    totais.add(new TotalLancamentoCategoriaVO(resultado.getLong(3),
+                            TipoLancamento.valueOf(resultado.getString(1)),
+                            categoria != null ? Categoria.valueOf(categoria) : null));
+                }
+            }
+            return totais;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class AgregadorPorMesTest {
+
+    private final AgregadorPorMes agregador = new AgregadorPorMes(4);
+
+    @AfterClass
+    public void encerra() {
+        agregador.encerra();
+    }
+
+    @Test
+    public void divideIntervaloEmMesesTest() {
+        final List<Date[]> meses = AgregadorPorMes.divideEmMeses(data(2017, 12, 15), data(2018, 2, 10));
+        assertEquals(meses.size(), 3);
+        assertEquals(meses.get(0)[0], data(2017, 12, 15));
+        assertEquals(meses.get(0)[1], data(2017, 12, 31));
+        assertEquals(meses.get(1)[0], data(2018, 1, 1));
+        assertEquals(meses.get(1)[1], data(2018, 1, 31));
+        assertEquals(meses.get(2)[0], data(2018, 2, 1));
+        assertEquals(meses.get(2)[1], data(2018, 2, 10));
+    }
+
+    @Test
+    public void intervaloDeUmMesConsultaDiretamenteTest() {
+        final Queue<Date[]> consultas = new ConcurrentLinkedQueue<>();
+        agregador.agrega(data(2018, 1, 1), data(2018, 1, 31), (inicio, fim) -> {
+            consultas.add(new Date[]{inicio, fim});
+            return Collections.emptyList();
+        });
+        assertEquals(consultas.size(), 1);
+    }
+
+    @Test
+    public void somaTotaisParciaisDosMesesTest() {
+        final Queue<Date[]> consultas = new ConcurrentLinkedQueue<>();
+        final List<TotalLancamentoCategoriaVO> totais = agregador.agrega(data(2017, 1, 1), data(2018, 12, 31), (inicio, fim) -> {
+            consultas.add(new Date[]{inicio, fim});
+            return Arrays.asList(
+                    new TotalLancamentoCategoriaVO(1_000, TipoLancamento.ENTRADA, Categoria.SALARIO),
+                    new TotalLancamentoCategoriaVO(250, TipoLancamento.SAIDA, null),
+                    new TotalLancamentoCategoriaVO(125, TipoLancamento.SAIDA, Categoria.ALIMENTACAO));
+        });
+
+        assertEquals(consultas.size(), 24);
+        assertEquals(totais.size(), 3);
+        assertEquals(totais.get(0).getTipo(), TipoLancamento.ENTRADA);
+        assertEquals(totais.get(0).getTotal(), new BigDecimal("240.00"));
+        assertNull(totais.get(1).getCategoria());
+        assertEquals(totais.get(1).getTotal(), new BigDecimal("-60.00"));
+        assertEquals(totais.get(2).getCategoria(), Categoria.ALIMENTACAO);
+        assertEquals(totais.get(2).getTotal(), new BigDecimal("-30.00"));
+    }
+
+    private static Date data(int ano, int mes, int dia) {
+        return Date.from(LocalDate.of(ano, mes, dia).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
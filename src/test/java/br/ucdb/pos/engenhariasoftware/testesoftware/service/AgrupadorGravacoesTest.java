@@ -0,0 +1,136 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AgrupadorGravacoesTest {
+
+    private static final int THREADS = 16;
+    private static final int GRAVACOES = 50;
+
+    @Test
+    public void agrupaGravacoesConcorrentesTest() throws Exception {
+        final TransacoesContadas transacoes = new TransacoesContadas();
+        final AgrupadorGravacoes agrupador = new AgrupadorGravacoes(transacoes, mock(ApplicationEventPublisher.class), true, 500, 100);
+
+        final AtomicInteger corretas = new AtomicInteger();
+        final AtomicInteger erros = new AtomicInteger();
+        executaConcorrente(id -> {
+            try {
+                final AlteracaoLancamento alteracao = agrupador.executa(() -> {
+                    if (id % 97 == 0) {
+                        throw new IllegalArgumentException("inválido " + id);
+                    }
+                    return new AlteracaoLancamento(null, lancamento(id));
+                });
+                if (alteracao.getAtual().getId() == id) {
+                    corretas.incrementAndGet();
+                }
+            } catch (IllegalArgumentException e) {
+                // cada erro chega apenas a quem fez a gravação inválida
+                if (e.getMessage().equals("inválido " + id)) {
+                    erros.incrementAndGet();
+                }
+            }
+        });
+
+        final int invalidas = (int) idsDeTeste().stream().filter(id -> id % 97 == 0).count();
+        assertEquals(erros.get(), invalidas);
+        assertEquals(corretas.get(), THREADS * GRAVACOES - invalidas);
+        assertTrue(transacoes.confirmadas.get() < THREADS * GRAVACOES / 2, "confirmações: " + transacoes.confirmadas);
+    }
+
+    @Test
+    public void semAgrupamentoUmaTransacaoPorGravacaoTest() throws Exception {
+        final TransacoesContadas transacoes = new TransacoesContadas();
+        final AgrupadorGravacoes agrupador = new AgrupadorGravacoes(transacoes, mock(ApplicationEventPublisher.class), false, 500, 100);
+
+        executaConcorrente(id -> agrupador.executa(() -> new AlteracaoLancamento(null, lancamento(id))));
+
+        assertEquals(transacoes.confirmadas.get(), THREADS * GRAVACOES);
+    }
+
+    private static void executaConcorrente(Gravacao gravacao) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < GRAVACOES; i++) {
+                        gravacao.grava(thread * 1_000 + i);
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Integer> idsDeTeste() {
+        final List<Integer> ids = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < GRAVACOES; i++) {
+                ids.add(t * 1_000 + i);
+            }
+        }
+        return ids;
+    }
+
+    private static Lancamento lancamento(long id) {
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setId(id);
+        return lancamento;
+    }
+
+    private interface Gravacao {
+        void grava(int id);
+    }
+
+    /**
+     * Conta as confirmações; cada uma ocupa o "disco" por 1 ms, uma de cada vez, como a gravação do log do banco.
+     */
+    private static class TransacoesContadas extends AbstractPlatformTransactionManager {
+
+        private final AtomicInteger confirmadas = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected synchronized void doCommit(DefaultTransactionStatus status) {
+            confirmadas.incrementAndGet();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
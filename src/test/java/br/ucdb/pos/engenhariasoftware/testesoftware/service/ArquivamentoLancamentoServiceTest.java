@@ -0,0 +1,128 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.LancamentoController;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.servlet.view.RedirectView;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:arquivamento",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public class ArquivamentoLancamentoServiceTest extends AbstractTestNGSpringContextTests {
+
+    @Autowired
+    private ArquivamentoLancamentoService arquivamentoService;
+
+    @Autowired
+    private LancamentoService lancamentoService;
+
+    @Autowired
+    private LancamentoController lancamentoController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void corteMantemOsAnosAbertosTest() {
+        assertEquals(ArquivamentoLancamentoService.corte(LocalDate.of(2018, 6, 15), 2), data(2017, 1, 1));
+        assertEquals(ArquivamentoLancamentoService.corte(LocalDate.of(2018, 6, 15), 1), data(2018, 1, 1));
+    }
+
+    @Test
+    public void arquivadosContinuamNaBuscaTest() {
+        final Lancamento antigo = lancamentoService.salvar(lancamento("Aluguel antigo", data(2015, 3, 10)));
+        final Lancamento recente = lancamentoService.salvar(lancamento("Aluguel recente", data(2018, 3, 10)));
+
+        assertEquals(arquivamentoService.arquiva(data(2017, 1, 1)), 1);
+
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from lancamento", Long.class).longValue(), 1L);
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from lancamento_arquivado", Long.class).longValue(), 1L);
+        final List<Lancamento> encontrados = lancamentoService.buscaPorIds(Arrays.asList(antigo.getId(), recente.getId()));
+        assertEquals(encontrados.size(), 2);
+        assertEquals(encontrados.get(0).getDescricao(), "Aluguel antigo");
+        assertEquals(encontrados.get(0).getValor(), new BigDecimal("1200.50"));
+        assertEquals(encontrados.get(1).getDescricao(), "Aluguel recente");
+    }
+
+    @Test
+    public void arquivadoPodeSerEditadoERemovidoTest() {
+        final Lancamento antigo = lancamentoService.salvar(lancamento("Condomínio antigo", data(2014, 5, 10)));
+        arquivamentoService.arquiva(data(2017, 1, 1));
+
+        final Lancamento editado = (Lancamento) lancamentoController.edtiar(antigo.getId(), 1).getModel().get("lancamento");
+        assertNotNull(editado);
+        assertEquals(editado.getId(), antigo.getId());
+        assertEquals(editado.getDescricao(), "Condomínio antigo");
+
+        editado.setDescricao("Condomínio antigo corrigido");
+        editado.setCategoria(Categoria.OUTROS);
+        assertTrue(lancamentoController.salvar(editado, new BeanPropertyBindingResult(editado, "lancamento"), 1) instanceof RedirectView);
+
+        // continua arquivado, com o mesmo id, sem incluir um lançamento novo
+        assertEquals(conta("lancamento", antigo.getId()), 0L);
+        assertEquals(conta("lancamento_arquivado", antigo.getId()), 1L);
+        assertEquals(jdbcTemplate.queryForObject("select count(*) from lancamento where descricao = ?",
+                Long.class, "Condomínio antigo corrigido").longValue(), 0L);
+        assertEquals(lancamentoService.buscaPorId(antigo.getId()).getDescricao(), "Condomínio antigo corrigido");
+
+        lancamentoController.remover(antigo.getId(), 1);
+        assertEquals(conta("lancamento_arquivado", antigo.getId()), 0L);
+        assertNull(lancamentoService.buscaPorId(antigo.getId()));
+    }
+
+    @Test
+    public void arquivadoEditadoParaUmAnoAbertoVoltaParaAListagemTest() {
+        final Lancamento antigo = lancamentoService.salvar(lancamento("Seguro antigo", data(2013, 8, 20)));
+        arquivamentoService.arquiva(data(2017, 1, 1));
+        final long totalAntes = lancamentoService.conta(null);
+
+        final Lancamento editado = (Lancamento) lancamentoController.edtiar(antigo.getId(), 1).getModel().get("lancamento");
+        editado.setDataLancamento(new Date());
+        editado.setCategoria(Categoria.OUTROS);
+        lancamentoController.salvar(editado, new BeanPropertyBindingResult(editado, "lancamento"), 1);
+
+        assertEquals(conta("lancamento", antigo.getId()), 1L);
+        assertEquals(conta("lancamento_arquivado", antigo.getId()), 0L);
+        assertEquals(lancamentoService.conta(null), totalAntes + 1);
+        assertEquals(lancamentoService.buscaPorId(antigo.getId()).getDescricao(), "Seguro antigo");
+
+        lancamentoService.remover(antigo.getId());
+    }
+
+    private long conta(String tabela, long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela + " where id = ?", Long.class, id);
+    }
+
+    private static Lancamento lancamento(String descricao, Date data) {
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(descricao);
+        lancamento.setValor(new BigDecimal("1200.50"));
+        lancamento.setDataLancamento(data);
+        lancamento.setTipoLancamento(TipoLancamento.SAIDA);
+        return lancamento;
+    }
+
+    private static Date data(int ano, int mes, int dia) {
+        return Date.from(LocalDate.of(ano, mes, dia).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
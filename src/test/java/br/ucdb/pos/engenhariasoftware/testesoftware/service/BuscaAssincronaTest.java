@@ -0,0 +1,85 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.ResultadoVO;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class BuscaAssincronaTest {
+
+    @Test
+    public void buscaNovaDoMesmoClienteDescartaAAnteriorTest() throws Exception {
+        final CountDownLatch liberaOcupada = new CountDownLatch(1);
+        final LancamentoService lancamentoService = mock(LancamentoService.class);
+        when(lancamentoService.buscaAjax(any(String.class), any(ModoContagem.class))).thenAnswer(invocacao -> {
+            if ("ocupada".equals(invocacao.getArguments()[0])) {
+                liberaOcupada.await(10, TimeUnit.SECONDS);
+            }
+            return resultado();
+        });
+        // fila de uma posição: cada busca descartada precisa liberar o lugar para a seguinte
+        final BuscaAssincrona busca = new BuscaAssincrona(lancamentoService, 1, 1, 5_000);
+        try {
+            // ocupa a única thread do pool, para que as buscas seguintes esperem na fila
+            final CompletableFuture<ResultadoVO> ocupada = busca.busca("outro", "ocupada", ModoContagem.EXATA);
+            verify(lancamentoService, timeout(10_000)).buscaAjax("ocupada", ModoContagem.EXATA);
+            final CompletableFuture<ResultadoVO> mer = busca.busca("cliente", "mer", ModoContagem.EXATA);
+            final CompletableFuture<ResultadoVO> merc = busca.busca("cliente", "merc", ModoContagem.EXATA);
+            final CompletableFuture<ResultadoVO> mercado = busca.busca("cliente", "mercado", ModoContagem.EXATA);
+            assertTrue(mer.isCancelled());
+            assertTrue(merc.isCancelled());
+
+            liberaOcupada.countDown();
+            assertEquals(mercado.get(10, TimeUnit.SECONDS).getTotalRegistros(), 0);
+            ocupada.get(10, TimeUnit.SECONDS);
+
+            // as descartadas na fila não chegam a consultar o banco
+            verify(lancamentoService, never()).buscaAjax(eq("mer"), any(ModoContagem.class));
+            verify(lancamentoService, never()).buscaAjax(eq("merc"), any(ModoContagem.class));
+        } finally {
+            busca.encerra();
+        }
+    }
+
+    @Test
+    public void recusaBuscasComFilaCheiaTest() throws Exception {
+        final CountDownLatch libera = new CountDownLatch(1);
+        final LancamentoService lancamentoService = mock(LancamentoService.class);
+        when(lancamentoService.buscaAjax(any(String.class), any(ModoContagem.class))).thenAnswer(invocacao -> {
+            libera.await(10, TimeUnit.SECONDS);
+            return resultado();
+        });
+        final BuscaAssincrona busca = new BuscaAssincrona(lancamentoService, 1, 1, 5_000);
+        try {
+            final CompletableFuture<ResultadoVO> executando = busca.busca(null, "a", ModoContagem.EXATA);
+            // espera a primeira sair da fila para a thread do pool
+            verify(lancamentoService, timeout(10_000)).buscaAjax("a", ModoContagem.EXATA);
+            final CompletableFuture<ResultadoVO> naFila = busca.busca(null, "b", ModoContagem.EXATA);
+            final CompletableFuture<ResultadoVO> recusada = busca.busca(null, "c", ModoContagem.EXATA);
+            try {
+                recusada.getNow(null);
+                fail("a busca deveria ter sido recusada");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+
+            libera.countDown();
+            executando.get(10, TimeUnit.SECONDS);
+            naFila.get(10, TimeUnit.SECONDS);
+        } finally {
+            busca.encerra();
+        }
+    }
+
+    private static ResultadoVO resultado() {
+        return new ResultadoVO("0,00", "0,00", Collections.emptyList(), 0, 0);
+    }
+}
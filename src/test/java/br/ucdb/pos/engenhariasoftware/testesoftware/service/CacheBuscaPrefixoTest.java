@@ -0,0 +1,110 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+
+public class CacheBuscaPrefixoTest {
+
+    private final Map<Long, Lancamento> banco = new HashMap<>();
+    private final List<List<Long>> cargas = new ArrayList<>();
+    private final Function<List<Long>, List<Lancamento>> carga = ids -> {
+        cargas.add(ids);
+        return ids.stream().map(banco::get).collect(Collectors.toList());
+    };
+
+    private IndiceBuscaLancamento indice;
+    private VersaoLancamentos versao;
+
+    @BeforeMethod
+    public void init() {
+        banco.clear();
+        cargas.clear();
+        indice = new IndiceBuscaLancamento();
+        versao = new VersaoLancamentos();
+        indexa(lancamento(1L, "Almoço no restaurante", 3, Categoria.ALIMENTACAO));
+        indexa(lancamento(2L, "Aluguel do apartamento", 1, Categoria.OUTROS));
+        indexa(lancamento(3L, "Aluguel da garagem", 2, Categoria.OUTROS));
+        indexa(lancamento(4L, "Conta de telefone", 4, Categoria.TELEFONE_INTERNET));
+    }
+
+    @Test
+    public void refinaBuscaMaisAmplaSemRecarregarTest() {
+        final CacheBuscaPrefixo cache = new CacheBuscaPrefixo(indice, versao, 10, 100);
+
+        assertEquals(ids(cache.obtem("al", 10, carga)), Arrays.asList(2L, 3L, 1L));
+        assertEquals(cache.obtem("alu", 10, carga).getTotal(), 2);
+        assertEquals(ids(cache.obtem("Alu gar", 10, carga)), Collections.singletonList(3L));
+        assertEquals(ids(cache.obtem("alu gar", 10, carga)), Collections.singletonList(3L));
+
+        // só a primeira busca foi ao banco; as seguintes reaproveitaram os lançamentos já carregados
+        assertEquals(cargas.size(), 1);
+        assertEquals(cache.getFalhas(), 1);
+        assertEquals(cache.getRefinamentos(), 2);
+        assertEquals(cache.getAcertos(), 1);
+    }
+
+    @Test
+    public void resultadoGrandeDemaisNaoServeParaRefinarTest() {
+        final CacheBuscaPrefixo cache = new CacheBuscaPrefixo(indice, versao, 10, 2);
+
+        assertEquals(cache.obtem("", 2, carga).getTotal(), 4);
+        assertEquals(ids(cache.obtem("aluguel", 2, carga)), Arrays.asList(2L, 3L));
+        assertEquals(cache.getRefinamentos(), 0);
+        assertEquals(cache.getFalhas(), 2);
+    }
+
+    @Test
+    public void gravacaoConfirmadaInvalidaAsEntradasTest() {
+        final CacheBuscaPrefixo cache = new CacheBuscaPrefixo(indice, versao, 10, 100);
+        assertEquals(cache.obtem("alu", 10, carga).getTotal(), 2);
+
+        indexa(lancamento(5L, "Aluguel da casa de praia", 5, Categoria.OUTROS));
+        versao.incrementa();
+
+        assertEquals(ids(cache.obtem("alu", 10, carga)), Arrays.asList(2L, 3L, 5L));
+        assertEquals(cache.getInvalidacoes(), 1);
+        assertEquals(cache.getAcertos(), 0);
+    }
+
+    @Test
+    public void expulsaAMenosUsadaTest() {
+        final CacheBuscaPrefixo cache = new CacheBuscaPrefixo(indice, versao, 2, 100);
+        cache.obtem("almoco", 10, carga);
+        cache.obtem("conta", 10, carga);
+        cache.obtem("almoco", 10, carga);
+        cache.obtem("garagem", 10, carga);
+
+        assertEquals(cache.getTamanho(), 2);
+        assertEquals(cache.getExpulsoes(), 1);
+        cache.obtem("almoco", 10, carga);
+        assertEquals(cache.getAcertos(), 2);
+    }
+
+    private static List<Long> ids(ResultadoBusca resultado) {
+        return resultado.getLancamentos().stream().map(Lancamento::getId).collect(Collectors.toList());
+    }
+
+    private void indexa(Lancamento lancamento) {
+        banco.put(lancamento.getId(), lancamento);
+        indice.indexa(lancamento);
+    }
+
+    private Lancamento lancamento(long id, String descricao, int dia, Categoria categoria) {
+        Lancamento lancamento = new Lancamento();
+        lancamento.setId(id);
+        lancamento.setDescricao(descricao);
+        lancamento.setDataLancamento(new Date(dia * 86_400_000L));
+        lancamento.setTipoLancamento(TipoLancamento.SAIDA);
+        lancamento.setCategoria(categoria);
+        return lancamento;
+    }
+}
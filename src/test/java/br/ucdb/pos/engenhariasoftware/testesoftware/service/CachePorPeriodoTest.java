@@ -0,0 +1,76 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+
+public class CachePorPeriodoTest {
+
+    private long agora;
+    private AtomicInteger calculos;
+    private CachePorPeriodo<Integer> cache;
+
+    @BeforeMethod
+    public void init() {
+        agora = 0L;
+        calculos = new AtomicInteger();
+        cache = new CachePorPeriodo<>(2, 1_000L, () -> agora);
+    }
+
+    @Test
+    public void guardaResultadoDoPeriodoTest() {
+        assertEquals(obtem(1, 10), Integer.valueOf(1));
+        assertEquals(obtem(1, 10), Integer.valueOf(1));
+        assertEquals(cache.getAcertos(), 1);
+        assertEquals(cache.getFalhas(), 1);
+    }
+
+    @Test
+    public void expiraDepoisDaValidadeTest() {
+        obtem(1, 10);
+        agora = 1_000L;
+        assertEquals(obtem(1, 10), Integer.valueOf(2));
+        assertEquals(cache.getExpulsoes(), 1);
+    }
+
+    @Test
+    public void expulsaMenosUsadoTest() {
+        obtem(1, 10);
+        obtem(11, 20);
+        obtem(1, 10);
+        obtem(21, 30);
+        assertEquals(cache.getTamanho(), 2);
+        assertEquals(cache.getExpulsoes(), 1);
+
+        obtem(1, 10);
+        assertEquals(calculos.get(), 3);
+        obtem(11, 20);
+        assertEquals(calculos.get(), 4);
+    }
+
+    @Test
+    public void invalidaApenasPeriodosQueContemODiaTest() {
+        obtem(1, 10);
+        obtem(11, 20);
+        cache.invalida(new Date(dia(10).getTime() + 3_600_000L));
+        assertEquals(cache.getTamanho(), 1);
+        assertEquals(cache.getInvalidacoes(), 1);
+
+        obtem(11, 20);
+        assertEquals(calculos.get(), 2);
+    }
+
+    private Integer obtem(int diaInicial, int diaFinal) {
+        return cache.obtem(dia(diaInicial), dia(diaFinal), calculos::incrementAndGet);
+    }
+
+    private static Date dia(int dia) {
+        return Date.from(LocalDate.of(2018, 10, dia).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
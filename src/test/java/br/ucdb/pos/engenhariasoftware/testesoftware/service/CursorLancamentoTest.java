@@ -0,0 +1,33 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import org.testng.annotations.Test;
+
+import java.util.Date;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class CursorLancamentoTest {
+
+    @Test
+    public void codificaEDecodificaTest() {
+        CursorLancamento cursor = new CursorLancamento(new Date(1538362800000L), 42L);
+        assertEquals(CursorLancamento.decodifica(cursor.codifica()), cursor);
+    }
+
+    @Test
+    public void decodificaDataAnteriorA1970Test() {
+        CursorLancamento cursor = new CursorLancamento(new Date(-86400000L), 7L);
+        assertEquals(CursorLancamento.decodifica(cursor.codifica()), cursor);
+    }
+
+    @Test
+    public void decodificaCursorInvalidoTest() {
+        assertNull(CursorLancamento.decodifica(null));
+        assertNull(CursorLancamento.decodifica(""));
+        assertNull(CursorLancamento.decodifica("abc"));
+        assertNull(CursorLancamento.decodifica("_1"));
+        assertNull(CursorLancamento.decodifica("1_"));
+        assertNull(CursorLancamento.decodifica("1_#"));
+    }
+}
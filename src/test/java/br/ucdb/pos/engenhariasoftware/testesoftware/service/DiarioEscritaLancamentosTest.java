@@ -0,0 +1,96 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class DiarioEscritaLancamentosTest {
+
+    @Test
+    public void leRegistrosPosterioresAoPontoDeControleTest() {
+        final ByteBuffer diario = ByteBuffer.allocate(4_096);
+        for (long sequencia = 1; sequencia <= 3; sequencia++) {
+            DiarioEscritaLancamentos.anexa(diario, sequencia,
+                    DiarioEscritaLancamentos.codifica(lancamento("Lançamento " + sequencia, Categoria.LAZER)));
+        }
+
+        final List<DiarioEscritaLancamentos.Registro> registros = DiarioEscritaLancamentos.le(diario, 1);
+
+        assertEquals(registros.size(), 2);
+        assertEquals(registros.get(0).getSequencia(), 2);
+        assertEquals(registros.get(0).getLancamento().getDescricao(), "Lançamento 2");
+        assertEquals(registros.get(1).getSequencia(), 3);
+    }
+
+    @Test
+    public void preservaCamposDoLancamentoTest() {
+        final ByteBuffer diario = ByteBuffer.allocate(1_024);
+        final Lancamento original = lancamento("Sem categoria", null);
+        DiarioEscritaLancamentos.anexa(diario, 1, DiarioEscritaLancamentos.codifica(original));
+
+        final Lancamento lido = DiarioEscritaLancamentos.le(diario, 0).get(0).getLancamento();
+
+        assertEquals(lido.getDescricao(), original.getDescricao());
+        assertEquals(lido.getValor(), original.getValor());
+        assertEquals(lido.getDataLancamento(), original.getDataLancamento());
+        assertEquals(lido.getTipoLancamento(), TipoLancamento.ENTRADA);
+        assertNull(lido.getCategoria());
+    }
+
+    @Test
+    public void paraNoRegistroCorrompidoTest() {
+        final ByteBuffer diario = ByteBuffer.allocate(4_096);
+        DiarioEscritaLancamentos.anexa(diario, 1, DiarioEscritaLancamentos.codifica(lancamento("Primeiro", null)));
+        final int segundo = diario.position();
+        DiarioEscritaLancamentos.anexa(diario, 2, DiarioEscritaLancamentos.codifica(lancamento("Segundo", null)));
+        DiarioEscritaLancamentos.anexa(diario, 3, DiarioEscritaLancamentos.codifica(lancamento("Terceiro", null)));
+        diario.put(segundo + DiarioEscritaLancamentos.CABECALHO, (byte) 0x7f);
+
+        final List<DiarioEscritaLancamentos.Registro> registros = DiarioEscritaLancamentos.le(diario, 0);
+
+        assertEquals(registros.size(), 1);
+        assertEquals(registros.get(0).getLancamento().getDescricao(), "Primeiro");
+    }
+
+    @Test
+    public void ignoraRegistrosAntigosDepoisDeVoltarAoInicioTest() {
+        final ByteBuffer diario = ByteBuffer.allocate(4_096);
+        for (long sequencia = 1; sequencia <= 5; sequencia++) {
+            DiarioEscritaLancamentos.anexa(diario, sequencia, DiarioEscritaLancamentos.codifica(lancamento("Antigo", null)));
+        }
+        diario.position(0);
+        DiarioEscritaLancamentos.anexa(diario, 6, DiarioEscritaLancamentos.codifica(lancamento("Novo", null)));
+
+        final List<DiarioEscritaLancamentos.Registro> registros = DiarioEscritaLancamentos.le(diario, 5);
+
+        assertEquals(registros.size(), 1);
+        assertEquals(registros.get(0).getLancamento().getDescricao(), "Novo");
+    }
+
+    @Test
+    public void recusaPelasRestricoesDoBancoTest() {
+        assertTrue(DiarioEscritaLancamentos.recusado(new RuntimeException(
+                new java.sql.SQLIntegrityConstraintViolationException("violação"))));
+        assertEquals(DiarioEscritaLancamentos.recusado(new RuntimeException(new java.sql.SQLException("conexão"))), false);
+    }
+
+    private static Lancamento lancamento(String descricao, Categoria categoria) {
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(descricao);
+        lancamento.setValor(new BigDecimal("123.45"));
+        lancamento.setDataLancamento(new Date(1_500_000_000_000L));
+        lancamento.setTipoLancamento(TipoLancamento.ENTRADA);
+        lancamento.setCategoria(categoria);
+        return lancamento;
+    }
+}
@@ -0,0 +1,33 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.testng.Assert.assertEquals;
+
+public class EscritorCsvTest {
+
+    @Test
+    public void escreveLinhasComCamposEscapadosTest() throws IOException {
+        final StringWriter saida = new StringWriter();
+        final EscritorCsv escritor = new EscritorCsv(saida);
+        final Date data = Date.from(LocalDate.of(2018, 10, 5).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        escritor.inicio();
+        escritor.escreve(1L, data, "Almoço; \"executivo\"", new BigDecimal("1234.50"), TipoLancamento.SAIDA, Categoria.ALIMENTACAO);
+        escritor.escreve(2L, data, "Salário", new BigDecimal("10"), TipoLancamento.ENTRADA, null);
+        escritor.fim();
+
+        assertEquals(saida.toString(), "id;data;descricao;valor;tipo;categoria\r\n" +
+                "1;05/10/2018;\"Almoço; \"\"executivo\"\"\";1234,50;Saída;Alimentação\r\n" +
+                "2;05/10/2018;Salário;10;Entrada;\r\n");
+    }
+}
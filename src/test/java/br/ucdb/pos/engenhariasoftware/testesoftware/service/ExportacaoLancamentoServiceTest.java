@@ -0,0 +1,95 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:exportacao",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "lancamento.exportacao.tamanho-lote=7"
+})
+public class ExportacaoLancamentoServiceTest extends AbstractTestNGSpringContextTests {
+
+    @Autowired
+    private ExportacaoLancamentoService exportacaoService;
+
+    @Autowired
+    private ArquivamentoLancamentoService arquivamentoService;
+
+    @Autowired
+    private LancamentoService lancamentoService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void exportaEmLotesMaisLinhasQueCabemNumLoteTest() throws Exception {
+        // datas repetidas, para que lotes terminem no meio de um mesmo dia
+        final List<Lancamento> salvos = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            salvos.add(lancamentoService.salvar(lancamento("Lançamento " + i, data(2014 + i % 5, 1 + i % 3, 10))));
+        }
+        arquivamentoService.arquiva(data(2017, 1, 1));
+        final List<Long> esperados = salvos.stream()
+                .sorted(Comparator.comparing(Lancamento::getDataLancamento).thenComparing(Lancamento::getId))
+                .map(Lancamento::getId)
+                .collect(Collectors.toList());
+
+        final Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final long consultasAntes = estatisticas.getQueryExecutionCount();
+        final long linhasAntes = linhasLidas(estatisticas);
+        final StringWriter saida = new StringWriter();
+        exportacaoService.exporta(new FiltroExportacao(), FormatoExportacao.CSV, saida);
+
+        final List<String> linhas = Arrays.asList(saida.toString().split("\r\n"));
+        assertEquals(linhas.size(), esperados.size() + 1);
+        assertEquals(linhas.subList(1, linhas.size()).stream()
+                .map(linha -> Long.valueOf(linha.substring(0, linha.indexOf(';'))))
+                .collect(Collectors.toList()), esperados);
+
+        // 24 arquivados e 16 atuais, lidos em lotes de 7: 4 + 3 consultas, cada linha lida uma só vez
+        assertEquals(estatisticas.getQueryExecutionCount() - consultasAntes, 7L);
+        assertEquals(linhasLidas(estatisticas) - linhasAntes, (long) esperados.size());
+    }
+
+    private static long linhasLidas(Statistics estatisticas) {
+        long linhas = 0;
+        for (String consulta : estatisticas.getQueries()) {
+            if (consulta.startsWith("select l.id, l.dataLancamento")) {
+                linhas += estatisticas.getQueryStatistics(consulta).getExecutionRowCount();
+            }
+        }
+        return linhas;
+    }
+
+    private static Lancamento lancamento(String descricao, Date data) {
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(descricao);
+        lancamento.setValor(new BigDecimal("10.00"));
+        lancamento.setDataLancamento(data);
+        lancamento.setTipoLancamento(TipoLancamento.SAIDA);
+        lancamento.setCategoria(Categoria.OUTROS);
+        return lancamento;
+    }
+
+    private static Date data(int ano, int mes, int dia) {
+        return Date.from(LocalDate.of(ano, mes, dia).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
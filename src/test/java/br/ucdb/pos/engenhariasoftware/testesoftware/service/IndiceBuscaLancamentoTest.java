@@ -0,0 +1,116 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class IndiceBuscaLancamentoTest {
+
+    private IndiceBuscaLancamento indice;
+
+    @BeforeMethod
+    public void init() {
+        indice = new IndiceBuscaLancamento();
+        indice.indexa(lancamento(1L, "Almoço no restaurante", 3, TipoLancamento.SAIDA, Categoria.ALIMENTACAO));
+        indice.indexa(lancamento(2L, "Salário de outubro", 1, TipoLancamento.ENTRADA, Categoria.SALARIO));
+        indice.indexa(lancamento(3L, "Aluguel do salão", 2, TipoLancamento.SAIDA, null));
+    }
+
+    @Test
+    public void buscaSemAcentoPorPrefixoTest() {
+        assertEquals(indice.busca("almoco", 10), Collections.singletonList(1L));
+        assertEquals(indice.busca("SALA", 10), Arrays.asList(2L, 3L));
+        assertEquals(indice.conta("sal"), 2);
+    }
+
+    @Test
+    public void buscaPorTipoECategoriaTest() {
+        assertEquals(indice.busca("entrada", 10), Collections.singletonList(2L));
+        assertEquals(indice.busca("alimentação", 10), Collections.singletonList(1L));
+    }
+
+    @Test
+    public void buscaComVariosTermosTest() {
+        assertEquals(indice.busca("sal out", 10), Collections.singletonList(2L));
+        assertEquals(indice.conta("sal inexistente"), 0);
+    }
+
+    @Test
+    public void buscaSemTermosDevolveTodosOrdenadosPorDataTest() {
+        assertEquals(indice.busca("", 2), Arrays.asList(2L, 3L));
+        assertEquals(indice.conta(" "), 3);
+    }
+
+    @Test
+    public void atualizaERemoveTest() {
+        indice.indexa(lancamento(3L, "Conta de telefone", 2, TipoLancamento.SAIDA, Categoria.TELEFONE_INTERNET));
+        assertEquals(indice.conta("salao"), 0);
+        assertEquals(indice.busca("internet", 10), Collections.singletonList(3L));
+
+        indice.remove(3L);
+        assertEquals(indice.conta("telefone"), 0);
+        assertEquals(indice.conta(null), 2);
+    }
+
+    @Test
+    public void cargaNaoSobrescreveAlteracoesFeitasDuranteElaTest() {
+        final IndiceBuscaLancamento carregado = new IndiceBuscaLancamento();
+        final EntityManager entityManager = mock(EntityManager.class);
+        final Query lancamentos = consulta(entityManager, "lancamento.indexaveis");
+        final Query arquivados = consulta(entityManager, "lancamentoArquivado.indexaveis");
+        ReflectionTestUtils.setField(carregado, "entityManager", entityManager);
+        // o lote é lido antes de 1 ser alterado e 2 ser removido, e só é indexado depois
+        when(lancamentos.getResultList()).thenAnswer(invocacao -> {
+            carregado.atualiza(new LancamentosAlteradosEvent(Arrays.asList(
+                    new AlteracaoLancamento(lancamento(1L, "Almoço", 1, TipoLancamento.SAIDA, null),
+                            lancamento(1L, "Jantar", 1, TipoLancamento.SAIDA, null)),
+                    new AlteracaoLancamento(lancamento(2L, "Cinema", 1, TipoLancamento.SAIDA, null), null))));
+            return Arrays.asList(
+                    new Object[]{1L, "Almoço", new Date(0), TipoLancamento.SAIDA, null},
+                    new Object[]{2L, "Cinema", new Date(0), TipoLancamento.SAIDA, null},
+                    new Object[]{3L, "Padaria", new Date(0), TipoLancamento.SAIDA, null});
+        });
+        when(arquivados.getResultList()).thenReturn(Collections.emptyList());
+
+        carregado.carrega();
+
+        assertEquals(carregado.conta(null), 2);
+        assertEquals(carregado.conta("almoco"), 0);
+        assertEquals(carregado.busca("jantar", 10), Collections.singletonList(1L));
+        assertEquals(carregado.conta("cinema"), 0);
+    }
+
+    private static Query consulta(EntityManager entityManager, String nome) {
+        final Query query = mock(Query.class);
+        when(entityManager.createNamedQuery(nome)).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        return query;
+    }
+
+    private Lancamento lancamento(long id, String descricao, int dia, TipoLancamento tipo, Categoria categoria) {
+        Lancamento lancamento = new Lancamento();
+        lancamento.setId(id);
+        lancamento.setDescricao(descricao);
+        lancamento.setDataLancamento(new Date(dia * 86_400_000L));
+        lancamento.setTipoLancamento(tipo);
+        lancamento.setCategoria(categoria);
+        return lancamento;
+    }
+}
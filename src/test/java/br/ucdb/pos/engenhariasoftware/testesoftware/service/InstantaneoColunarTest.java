@@ -0,0 +1,137 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoCategoriaVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.TotalLancamentoVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class InstantaneoColunarTest {
+
+    private InstantaneoColunar instantaneo;
+
+    @BeforeMethod
+    public void init() {
+        instantaneo = new InstantaneoColunar(true);
+        instantaneo.grava(1L, data(1), new BigDecimal("10.00"), TipoLancamento.ENTRADA, Categoria.SALARIO);
+        instantaneo.grava(2L, data(2), new BigDecimal("2.50"), TipoLancamento.SAIDA, Categoria.ALIMENTACAO);
+        instantaneo.grava(3L, data(2), new BigDecimal("1.25"), TipoLancamento.SAIDA, null);
+        instantaneo.grava(4L, data(5), new BigDecimal("100"), TipoLancamento.SAIDA, Categoria.ALIMENTACAO);
+    }
+
+    @Test
+    public void somaPorTipoNoPeriodoTest() {
+        final List<TotalLancamentoVO> totais = instantaneo.getTotalPorPeriodo(data(1), data(2));
+        assertEquals(totais.size(), 2);
+        assertEquals(totais.get(0).getTipo(), TipoLancamento.ENTRADA);
+        assertEquals(totais.get(0).getTotal(), new BigDecimal("10.00"));
+        assertEquals(totais.get(1).getTipo(), TipoLancamento.SAIDA);
+        assertEquals(totais.get(1).getTotal(), new BigDecimal("3.75"));
+    }
+
+    @Test
+    public void somaPorCategoriaComGrupoSemCategoriaTest() {
+        final List<TotalLancamentoCategoriaVO> totais = instantaneo.getTotalPorPeriodoPorCategoria(data(2), data(5));
+        assertEquals(totais.size(), 2);
+        assertNull(totais.get(0).getCategoria());
+        assertEquals(totais.get(0).getTotal(), new BigDecimal("-1.25"));
+        assertEquals(totais.get(1).getCategoria(), Categoria.ALIMENTACAO);
+        assertEquals(totais.get(1).getTotal(), new BigDecimal("-102.50"));
+    }
+
+    @Test
+    public void aplicaAlteracoesDosLancamentosTest() {
+        final Lancamento alterado = lancamento(2L, data(1), "7.00", TipoLancamento.SAIDA);
+        instantaneo.atualiza(new LancamentosAlteradosEvent(
+                new AlteracaoLancamento(lancamento(2L, data(2), "2.50", TipoLancamento.SAIDA), alterado)));
+        instantaneo.atualiza(new LancamentosAlteradosEvent(
+                new AlteracaoLancamento(lancamento(1L, data(1), "10.00", TipoLancamento.ENTRADA), null)));
+
+        assertEquals(instantaneo.getTamanho(), 3);
+        final List<TotalLancamentoVO> totais = instantaneo.getTotalPorPeriodo(data(1), data(1));
+        assertEquals(totais.size(), 1);
+        assertEquals(totais.get(0).getTotal(), new BigDecimal("7.00"));
+        assertEquals(instantaneo.getTotalPorPeriodo(data(2), data(2)).get(0).getTotal(), new BigDecimal("1.25"));
+    }
+
+    @Test
+    public void cresceAlemDaCapacidadeInicialTest() {
+        for (long id = 10; id < 5_000; id++) {
+            instantaneo.grava(id, data(10), BigDecimal.ONE, TipoLancamento.ENTRADA, Categoria.OUTROS);
+        }
+        for (long id = 10; id < 5_000; id += 2) {
+            instantaneo.remove(id);
+        }
+        assertEquals(instantaneo.getTotalPorPeriodo(data(10), data(10)).get(0).getTotal(), new BigDecimal("2495.00"));
+    }
+
+    @Test
+    public void cargaNaoSobrescreveAlteracoesFeitasDuranteElaTest() {
+        final InstantaneoColunar carregado = new InstantaneoColunar(true);
+        final EntityManager entityManager = mock(EntityManager.class);
+        final Query lancamentos = consulta(entityManager, "lancamento.colunas");
+        final Query arquivados = consulta(entityManager, "lancamentoArquivado.colunas");
+        ReflectionTestUtils.setField(carregado, "entityManager", entityManager);
+        // o lote é lido antes de 1 ser alterado e 2 ser removido, e só é gravado depois
+        when(lancamentos.getResultList()).thenAnswer(invocacao -> {
+            carregado.atualiza(new LancamentosAlteradosEvent(Arrays.asList(
+                    new AlteracaoLancamento(lancamento(1L, data(1), "10.00", TipoLancamento.ENTRADA),
+                            lancamento(1L, data(1), "12.00", TipoLancamento.ENTRADA)),
+                    new AlteracaoLancamento(lancamento(2L, data(1), "2.50", TipoLancamento.SAIDA), null))));
+            return Arrays.asList(
+                    new Object[]{1L, data(1), new BigDecimal("10.00"), TipoLancamento.ENTRADA, null},
+                    new Object[]{2L, data(1), new BigDecimal("2.50"), TipoLancamento.SAIDA, null},
+                    new Object[]{3L, data(1), new BigDecimal("1.00"), TipoLancamento.SAIDA, null});
+        });
+        when(arquivados.getResultList()).thenReturn(Collections.emptyList());
+
+        carregado.carrega();
+
+        assertEquals(carregado.getTamanho(), 2);
+        final List<TotalLancamentoVO> totais = carregado.getTotalPorPeriodo(data(1), data(1));
+        assertEquals(totais.get(0).getTotal(), new BigDecimal("12.00"));
+        assertEquals(totais.get(1).getTotal(), new BigDecimal("1.00"));
+    }
+
+    private static Query consulta(EntityManager entityManager, String nome) {
+        final Query query = mock(Query.class);
+        when(entityManager.createNamedQuery(nome)).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        return query;
+    }
+
+    private static Lancamento lancamento(long id, Date data, String valor, TipoLancamento tipo) {
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setId(id);
+        lancamento.setDataLancamento(data);
+        lancamento.setValor(new BigDecimal(valor));
+        lancamento.setTipoLancamento(tipo);
+        return lancamento;
+    }
+
+    private static Date data(int dia) {
+        return Date.from(LocalDate.of(2018, 1, dia).atTime(15, 30).atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,72 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.controller.vo.ResultadoVO;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do resultado da busca AJAX e soma dos valores por tipo, executadas a cada requisição
+ * sobre a lista de lançamentos encontrados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class LancamentoServiceBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int quantidade;
+
+    private LancamentoService lancamentoService;
+    private List<Lancamento> lancamentos;
+
+    @Setup
+    public void prepara() {
+        lancamentoService = new LancamentoService();
+        lancamentos = lancamentos(quantidade);
+    }
+
+    /**
+     * @param quantidade tamanho da lista
+     * @return lançamentos com descrições, datas, valores e categorias variados; a semente é fixa
+     * para que as execuções sejam comparáveis
+     */
+    static List<Lancamento> lancamentos(int quantidade) {
+        final Random random = new Random(42);
+        final Categoria[] categorias = Categoria.values();
+        final long inicio = 1514764800000L;
+        final List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            final Lancamento lancamento = new Lancamento();
+            lancamento.setId(i + 1);
+            lancamento.setDescricao("Lançamento " + random.nextInt(10_000));
+            lancamento.setValor(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            lancamento.setDataLancamento(new Date(inicio + random.nextInt(365) * 86_400_000L));
+            lancamento.setTipoLancamento(random.nextInt(4) == 0 ? TipoLancamento.ENTRADA : TipoLancamento.SAIDA);
+            lancamento.setCategoria(random.nextInt(10) == 0 ? null : categorias[random.nextInt(categorias.length)]);
+            lancamentos.add(lancamento);
+        }
+        return lancamentos;
+    }
+
+    @Benchmark
+    public ResultadoVO getResultadoVO() {
+        return lancamentoService.getResultadoVO(lancamentos, lancamentos.size(), lancamentos.size());
+    }
+
+    @Benchmark
+    public BigDecimal somaValoresPorTipo() {
+        return lancamentoService.somaValoresPorTipo(lancamentos, TipoLancamento.SAIDA);
+    }
+}
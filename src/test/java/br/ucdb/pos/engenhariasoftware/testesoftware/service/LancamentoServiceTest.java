@@ -34,6 +34,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -139,6 +140,26 @@ public class LancamentoServiceTest {
         this.buscaAjaxTest(lancamentos, 0);
     }
 
+    /**
+     * Sem contagem, buscaComTotal devolve só a página lida pela busca e não conta os lançamentos
+     *
+     * @param lancamentos
+     */
+    @Test(dataProvider = "lancamentos", groups = "cenario10")
+    public void buscaSemContagem10LancamentosTest(List<Lancamento> lancamentos) {
+        // mock próprio, para não deixar buscaComTotal chamando o método real nos outros testes
+        LancamentoService service = mock(LancamentoService.class);
+        when(service.busca(anyString())).thenReturn(lancamentos);
+        when(service.buscaComTotal(anyString(), any(ModoContagem.class))).thenCallRealMethod();
+
+        ResultadoBusca resultado = service.buscaComTotal("mercado", ModoContagem.NENHUMA);
+
+        assertEquals(resultado.getLancamentos(), lancamentos);
+        assertEquals(resultado.getTotal(), ResultadoBusca.TOTAL_DESCONHECIDO);
+        assertFalse(resultado.isTotalExato());
+        verify(service, never()).conta(anyString());
+    }
+
     /**
      * Método que realiza os testes necessários do buscaAjax da classe LancamentoService
      *
@@ -153,15 +174,15 @@ public class LancamentoServiceTest {
         when(lancamentoService.getTotalEntrada(anyListOf(Lancamento.class))).thenCallRealMethod();
         when(lancamentoService.getTotalSaida(anyListOf(Lancamento.class))).thenCallRealMethod();
         when(lancamentoService.somaValoresPorTipo(anyListOf(Lancamento.class), any(TipoLancamento.class))).thenCallRealMethod();
-        when(lancamentoService.getResultadoVO(anyListOf(Lancamento.class), anyInt(), anyLong())).thenCallRealMethod();
-        // Quando chamado método busca, mockito devolve a lista de lançamentos fornecida
-        when(lancamentoService.busca(anyString())).thenReturn(lancamentos);
-        // Quando chamado método conta, devolva o tamanho da lista
-        when(lancamentoService.conta(anyString())).thenReturn((long) lancamentos.size());
+        when(lancamentoService.getResultadoVO(anyListOf(Lancamento.class), anyInt(), anyLong(), anyBoolean())).thenCallRealMethod();
+        // Quando chamado método buscaComTotal, mockito devolve a lista de lançamentos fornecida e o seu tamanho
+        when(lancamentoService.buscaComTotal(anyString(), any(ModoContagem.class)))
+                .thenReturn(new ResultadoBusca(lancamentos, lancamentos.size(), true));
         // Quando chamado método para busca tamanho da página, retorne o parâmetro exigido 10
         when(lancamentoService.tamanhoPagina()).thenReturn(10);
         // Quando chamado o método alvo buscaAjax, chame o método real
         given(lancamentoService.buscaAjax(anyString())).willCallRealMethod();
+        given(lancamentoService.buscaAjax(anyString(), any(ModoContagem.class))).willCallRealMethod();
 
         /**
          * Validação do valor total de entradas na lista de lançamentos
@@ -0,0 +1,44 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class LeitorCsvImportacaoTest {
+
+    @Test
+    public void leRegistrosNoLayoutDaExportacaoTest() throws IOException {
+        final LeitorCsvImportacao leitor = new LeitorCsvImportacao(new StringReader(
+                "id;data;descricao;valor;tipo;categoria\r\n" +
+                "1;05/10/2018;\"Almoço; \"\"executivo\"\"\";1.234,50;Saída;Alimentação\r\n" +
+                "\r\n" +
+                "2;06/10/2018;\"Salário\nde outubro\";10;entrada;SALARIO\r\n" +
+                "3;31/02/2018;Inválido;1;Saída;Outros\r\n"));
+
+        LinhaImportacao linha = leitor.proxima();
+        assertEquals(linha.getNumero(), 2);
+        assertEquals(linha.getLancamento().getDescricao(), "Almoço; \"executivo\"");
+        assertEquals(linha.getLancamento().getValor().compareTo(new BigDecimal("1234.50")), 0);
+        assertEquals(linha.getLancamento().getTipoLancamento(), TipoLancamento.SAIDA);
+        assertEquals(linha.getLancamento().getCategoria(), Categoria.ALIMENTACAO);
+
+        linha = leitor.proxima();
+        assertEquals(linha.getNumero(), 4);
+        assertEquals(linha.getLancamento().getDescricao(), "Salário\nde outubro");
+        assertEquals(linha.getLancamento().getTipoLancamento(), TipoLancamento.ENTRADA);
+        assertEquals(linha.getLancamento().getCategoria(), Categoria.SALARIO);
+
+        linha = leitor.proxima();
+        assertEquals(linha.getNumero(), 6);
+        assertEquals(linha.getErro(), "Data inválida: 31/02/2018");
+
+        assertNull(leitor.proxima());
+    }
+}
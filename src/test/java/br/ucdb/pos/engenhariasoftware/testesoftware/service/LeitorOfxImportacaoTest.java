@@ -0,0 +1,43 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class LeitorOfxImportacaoTest {
+
+    @Test
+    public void leTransacoesDeOfxSgmlTest() throws IOException {
+        final LeitorOfxImportacao leitor = new LeitorOfxImportacao(new StringReader(
+                "OFXHEADER:100\nDATA:OFXSGML\nVERSION:102\n\n" +
+                "<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n" +
+                "<DTSTART>20181001<DTEND>20181031\n" +
+                "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20181005120000[-3:BRT]\n<TRNAMT>-45.90\n" +
+                "<FITID>1\n<NAME>Padaria &amp; Cia\n<MEMO>Alimentação\n</STMTTRN>\n" +
+                "<STMTTRN>\n<TRNTYPE>CREDIT\n<DTPOSTED>20181006\n<TRNAMT>3500,00\n" +
+                "<FITID>2\n<MEMO>Transferência recebida\n</STMTTRN>\n" +
+                "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n"));
+
+        LinhaImportacao linha = leitor.proxima();
+        assertEquals(linha.getLancamento().getDescricao(), "Padaria & Cia");
+        assertEquals(linha.getLancamento().getValor(), new BigDecimal("45.90"));
+        assertEquals(linha.getLancamento().getTipoLancamento(), TipoLancamento.SAIDA);
+        assertEquals(linha.getLancamento().getCategoria(), Categoria.ALIMENTACAO);
+
+        linha = leitor.proxima();
+        assertEquals(linha.getNumero(), 2);
+        assertEquals(linha.getLancamento().getDescricao(), "Transferência recebida");
+        assertEquals(linha.getLancamento().getValor(), new BigDecimal("3500.00"));
+        assertEquals(linha.getLancamento().getTipoLancamento(), TipoLancamento.ENTRADA);
+        assertEquals(linha.getLancamento().getCategoria(), Categoria.OUTROS);
+
+        assertNull(leitor.proxima());
+    }
+}
@@ -0,0 +1,81 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.service;
+
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Categoria;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.Lancamento;
+import br.ucdb.pos.engenhariasoftware.testesoftware.modelo.TipoLancamento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.testng.Assert.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:total-diario",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public class TotalDiarioServiceTest extends AbstractTestNGSpringContextTests {
+
+    @Autowired
+    private TotalDiarioService totalDiarioService;
+
+    @Autowired
+    private LancamentoService lancamentoService;
+
+    @Autowired
+    private ArquivamentoLancamentoService arquivamentoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void reconstroiQuandoASomaDivergeTest() {
+        lancamentoService.salvar(lancamento("Mercado antigo", "150.25", data(2014, 2, 10)));
+        lancamentoService.salvar(lancamento("Mercado", "80.00", data(2018, 2, 10)));
+        lancamentoService.salvar(lancamento("Farmácia", "19.90", data(2018, 2, 10)));
+        arquivamentoService.arquiva(data(2017, 1, 1));
+        final long esperado = somaConsolidada();
+        assertEquals(esperado, 15025L + 8000L + 1990L);
+
+        // mesma quantidade de lançamentos, valor alterado direto no banco
+        jdbcTemplate.update("update total_diario set total_centavos = total_centavos + 100 " +
+                "where id = (select min(id) from total_diario)");
+        totalDiarioService.verificaConsistencia();
+
+        assertEquals(somaConsolidada(), esperado);
+    }
+
+    @Test(expectedExceptions = DataIntegrityViolationException.class)
+    public void umSoTotalPorDiaTipoECategoriaTest() {
+        final String insercao = "insert into total_diario (dia, tipo_lancamento, categoria, total_centavos, quantidade) " +
+                "values (date '2016-05-10', 'SAIDA', 'ALIMENTACAO', 100, 1)";
+        jdbcTemplate.update(insercao);
+        jdbcTemplate.update(insercao);
+    }
+
+    private long somaConsolidada() {
+        return jdbcTemplate.queryForObject("select coalesce(sum(total_centavos), 0) from total_diario " +
+                "where dia <> date '2016-05-10'", Long.class);
+    }
+
+    private static Lancamento lancamento(String descricao, String valor, Date data) {
+        final Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(descricao);
+        lancamento.setValor(new BigDecimal(valor));
+        lancamento.setDataLancamento(data);
+        lancamento.setTipoLancamento(TipoLancamento.SAIDA);
+        lancamento.setCategoria(Categoria.ALIMENTACAO);
+        return lancamento;
+    }
+
+    private static Date data(int ano, int mes, int dia) {
+        return Date.from(LocalDate.of(ano, mes, dia).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
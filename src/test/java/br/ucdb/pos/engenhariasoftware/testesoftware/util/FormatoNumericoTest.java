@@ -0,0 +1,66 @@
+package br.ucdb.pos.engenhariasoftware.testesoftware.util;
+
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.BR;
+import static br.ucdb.pos.engenhariasoftware.testesoftware.util.Constantes.DD_MM_YYYY;
+import static org.testng.Assert.assertEquals;
+
+public class FormatoNumericoTest {
+
+    private static final String[] VALORES = {"0", "0.00", "-0.001", "0.005", "0.015", "0.025", "1", "12.5", "999.995",
+            "1000", "-1234.56", "123456789.125", "99999999999999999.99", "123456789012345678901234567890.987"};
+
+    @Test
+    public void mesmaSaidaDoDecimalFormatTest() {
+        final DecimalFormat referencia = new DecimalFormat("#,###,##0.00");
+        for (String valor : VALORES) {
+            assertEquals(FormatoNumerico.VALOR.formata(new BigDecimal(valor)), referencia.format(new BigDecimal(valor)), valor);
+        }
+    }
+
+    @Test
+    public void mesmaSaidaDoFormatoDeMoedaTest() {
+        final NumberFormat referencia = NumberFormat.getCurrencyInstance(BR);
+        for (String valor : VALORES) {
+            assertEquals(FormatoNumerico.MOEDA.formata(new BigDecimal(valor)), referencia.format(new BigDecimal(valor)), valor);
+        }
+    }
+
+    @Test
+    public void mesmaSaidaDoFormatoEmReaisTest() {
+        final DecimalFormat referencia = new DecimalFormat("'R$ ' #,###,##0.00", DecimalFormatSymbols.getInstance(BR));
+        for (String valor : VALORES) {
+            assertEquals(FormatoNumerico.REAIS.formata(new BigDecimal(valor)), referencia.format(new BigDecimal(valor)), valor);
+        }
+    }
+
+    @Test
+    public void mesmaSaidaParaValoresAleatoriosTest() {
+        final DecimalFormat referencia = new DecimalFormat("#,###,##0.00");
+        final Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            final BigDecimal valor = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(5));
+            assertEquals(FormatoNumerico.VALOR.formata(valor), referencia.format(valor), valor.toPlainString());
+        }
+    }
+
+    @Test
+    public void mesmaSaidaDoSimpleDateFormatTest() {
+        final SimpleDateFormat referencia = new SimpleDateFormat(DD_MM_YYYY);
+        final Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            // de 1800 a 2200
+            final Date data = new Date(-5_364_662_400_000L + (long) (random.nextDouble() * 12_623_040_000_000L));
+            assertEquals(FormatoData.formata(data), referencia.format(data), Long.toString(data.getTime()));
+        }
+    }
+}